@@ -0,0 +1,54 @@
+package compiler.modules;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import jjt.ParseException;
+import jjt.SimpleNode;
+import jjt.jmm;
+
+/**
+ * The inputs of the benchmarks: a program of the test_files corpus, named without its extension,
+ * or a SyntheticProgram named synthetic-N, with N methods.
+ *
+ * The corpus is looked for in the directory given by the jmm.corpus property, test_files by default.
+ * MonteCarloPi and FindMaximum are left out, as they do not parse.
+ */
+final class BenchmarkSources {
+  private BenchmarkSources() {}
+
+  static final PrintStream NULL = new PrintStream(OutputStream.nullOutputStream());
+
+  private static final String SYNTHETIC = "synthetic-";
+
+  /**
+   * @return The source file of the named program, written to the directory if synthetic.
+   */
+  static File resolve(String name, File directory) throws IOException {
+    if (!name.startsWith(SYNTHETIC)) {
+      File file = new File(System.getProperty("jmm.corpus", "test_files"), name + ".jmm");
+      if (!file.isFile()) throw new IOException("No such benchmark source: " + file);
+      return file;
+    }
+
+    int methods = Integer.parseInt(name.substring(SYNTHETIC.length()));
+    File file = new File(directory, "Synthetic" + methods + ".jmm");
+    SyntheticProgram program = new SyntheticProgram();
+    program.methods = methods;
+    Files.write(file.toPath(), program.generate("Synthetic" + methods)
+                                   .getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  /**
+   * @return The class node of the source file.
+   */
+  static SimpleNode parse(File sourcefile) throws IOException, ParseException {
+    SimpleNode rootNode = new jmm(sourcefile).setErrorStream(NULL).parse();
+    return rootNode.jjtGetChild(0);
+  }
+}
@@ -0,0 +1,143 @@
+package compiler.modules;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import compiler.symbols.TypeDescriptor;
+import jjt.ParseException;
+import jjt.SimpleNode;
+import jjt.jmm;
+
+/**
+ * Benchmarks of each phase of the compiler, and of the whole of it, over the test_files corpus and
+ * over synthetic programs of growing size.
+ *
+ * A phase is measured on its own: the phases before it are run in the setup of each invocation, on
+ * fresh compilation data with a scope of types of its own, as ClassCompiler.compile() does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-ea")
+public class PhaseBenchmarks {
+
+  @State(Scope.Benchmark)
+  public static class Source {
+    @Param({"HelloWorld", "Quicksort", "Lazysort", "Life",
+            "synthetic-10", "synthetic-100", "synthetic-1000"})
+    public String source;
+
+    File directory;
+    File sourcefile;
+    CompilationOptions options;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+      directory = Files.createTempDirectory("jmm-bench").toFile();
+      sourcefile = BenchmarkSources.resolve(source, directory);
+      options = new CompilationOptions();
+      options.outputDirectory = directory;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      File[] files = directory.listFiles();
+      if (files != null) for (File file : files) file.delete();
+      directory.delete();
+    }
+  }
+
+  /**
+   * A compilation, prepared up to the phase to measure.
+   */
+  public abstract static class Prepared {
+    CompilationData data;
+    CompilationStatus tracker;
+    private DiagnosticsHandler diagnostics;
+
+    void prepare(Source source) throws IOException, ParseException {
+      data = new CompilationData(source.sourcefile, source.options);
+      tracker = new CompilationStatus();
+      diagnostics = new DiagnosticsHandler(source.sourcefile, BenchmarkSources.NULL);
+      diagnostics.install();
+      TypeDescriptor.openScope();
+      data.classNode = BenchmarkSources.parse(source.sourcefile);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+      TypeDescriptor.closeScope();
+      DiagnosticsHandler.uninstall();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Parsed extends Prepared {
+    @Setup(Level.Invocation)
+    public void setup(Source source) throws IOException, ParseException {
+      prepare(source);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class WithSymbols extends Prepared {
+    @Setup(Level.Invocation)
+    public void setup(Source source) throws IOException, ParseException {
+      prepare(source);
+      new SymbolsTableBuilder(data).read(tracker);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class WithDAGs extends Prepared {
+    @Setup(Level.Invocation)
+    public void setup(Source source) throws IOException, ParseException {
+      prepare(source);
+      new SymbolsTableBuilder(data).read(tracker);
+      new DAGBuilder(data).buildMethods(tracker);
+    }
+  }
+
+  @Benchmark
+  public SimpleNode parse(Source source) throws IOException, ParseException {
+    return jmm.parseClass(source.sourcefile);
+  }
+
+  @Benchmark
+  public SymbolsTableBuilder symbols(Parsed parsed) {
+    return new SymbolsTableBuilder(parsed.data).read(parsed.tracker);
+  }
+
+  @Benchmark
+  public DAGBuilder dag(WithSymbols prepared) {
+    return new DAGBuilder(prepared.data).buildMethods(prepared.tracker);
+  }
+
+  @Benchmark
+  public CompilationData codegen(WithDAGs prepared) {
+    new CodeGenerator(prepared.data).generateCode();
+    return prepared.data;
+  }
+
+  @Benchmark
+  public ClassCompiler pipeline(Source source) {
+    return new ClassCompiler(source.sourcefile, source.options, BenchmarkSources.NULL).compile();
+  }
+}
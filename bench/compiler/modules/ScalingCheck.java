@@ -0,0 +1,114 @@
+package compiler.modules;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Checks that the compile time grows about linearly with the size of the source.
+ *
+ * Synthetic classes of doubling numbers of methods are compiled in this JVM, after warming it up,
+ * and the best of a few runs of each is taken. The check fails if the time per byte of the largest
+ * class is more than the tolerance times that of the smallest. It also checks that a class full
+ * of syntax errors is rejected without an internal error.
+ *
+ * Usage: ScalingCheck [--sizes=N,N,...] [--runs=N] [--tolerance=X]
+ */
+public final class ScalingCheck {
+  private ScalingCheck() {}
+
+  public static void main(String[] args) throws IOException {
+    int[] sizes = {25, 50, 100, 200, 400};
+    int runs = 5;
+    double tolerance = 2.0;
+
+    for (String arg : args) {
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--sizes=")) {
+        sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+      } else if (arg.startsWith("--runs=")) {
+        runs = Integer.parseInt(value);
+      } else if (arg.startsWith("--tolerance=")) {
+        tolerance = Double.parseDouble(value);
+      } else {
+        System.err.println("Usage: ScalingCheck [--sizes=N,N,...] [--runs=N] [--tolerance=X]");
+        System.exit(1);
+      }
+    }
+
+    File directory = Files.createTempDirectory("jmm-scaling").toFile();
+    CompilationOptions options = new CompilationOptions();
+    options.outputDirectory = directory;
+    boolean failed = false;
+
+    try {
+      // Warm up on the middle size.
+      File warmup = write(directory, sizes[sizes.length / 2], 0);
+      for (int i = 0; i < 2 * runs; ++i) compile(warmup, options);
+
+      double first = 0, last = 0;
+      System.out.println(String.format("%8s %10s %10s %10s", "methods", "bytes", "ms", "ns/byte"));
+      for (int size : sizes) {
+        File file = write(directory, size, 0);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < runs; ++i) best = Math.min(best, compile(file, options));
+
+        double perByte = (double) best / file.length();
+        if (first == 0) first = perByte;
+        last = perByte;
+        System.out.println(String.format("%8d %10d %10.2f %10.1f", size, file.length(), best / 1e6,
+                                         perByte));
+      }
+
+      double ratio = last / first;
+      System.out.println(String.format("Time per byte grew %.2fx (tolerance %.2fx).", ratio,
+                                       tolerance));
+      if (ratio > tolerance) {
+        System.out.println("FAILED: compile time is not linear in the source size.");
+        failed = true;
+      }
+
+      File erroneous = write(directory, sizes[0], 2 * sizes[0]);
+      ClassCompiler compiler = new ClassCompiler(erroneous, options, BenchmarkSources.NULL);
+      int status = compiler.compile().status();
+      if (status < CompilationStatus.Codes.MAJOR_ERRORS) {
+        System.out.println("FAILED: a class with syntax errors compiled with status " + status + ".");
+        failed = true;
+      }
+    } catch (RuntimeException e) {
+      System.out.println("FAILED: internal compiler error: " + e);
+      failed = true;
+    } finally {
+      for (File file : directory.listFiles()) file.delete();
+      directory.delete();
+    }
+
+    System.exit(failed ? 1 : 0);
+  }
+
+  private static File write(File directory, int methods, int errors) throws IOException {
+    SyntheticProgram program = new SyntheticProgram();
+    program.methods = methods;
+    program.errors = errors;
+
+    String name = "Scaling" + methods + (errors > 0 ? "Errors" : "");
+    File file = new File(directory, name + ".jmm");
+    Files.write(file.toPath(), program.generate(name).getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  /**
+   * @return The time taken to compile the file, in nanoseconds.
+   */
+  private static long compile(File file, CompilationOptions options) {
+    long start = System.nanoTime();
+    ClassCompiler compiler = new ClassCompiler(file, options, BenchmarkSources.NULL).compile();
+    long time = System.nanoTime() - start;
+    if (compiler.status() >= CompilationStatus.Codes.MINOR_ERRORS) {
+      throw new IllegalStateException(file.getName() + " did not compile");
+    }
+    return time;
+  }
+}
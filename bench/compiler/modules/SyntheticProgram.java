@@ -0,0 +1,223 @@
+package compiler.modules;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Generates Java-- classes of any size, to see how the compiler scales.
+ *
+ * Each method declares its locals, gives each a value, and then runs its statements: assignments
+ * to locals and to an array, nested while loops over the array and if-elses, whose expressions are
+ * trees of arithmetic and of calls to the methods declared before it. The same options and seed
+ * always give the same class.
+ *
+ * With errors, that many malformed while statements are scattered through the methods, to exercise
+ * the parser's recovery. Past ParseException.numberRecoveries of them the parser gives up.
+ *
+ * Usage: SyntheticProgram [--name=<class>] [--methods=N] [--statements=N] [--depth=N]
+ *                         [--fan-out=N] [--loops=N] [--ifs=N] [--locals=N] [--calls=P]
+ *                         [--errors=N] [--seed=N]
+ */
+public class SyntheticProgram {
+
+  // Number of methods, besides main.
+  public int methods = 10;
+
+  // Number of simple statements of each method, including those nested in loops and ifs.
+  public int statements = 20;
+
+  // Depth of the expression trees, and the number of operands at each level.
+  public int expressionDepth = 2;
+  public int fanOut = 2;
+
+  // How deep while loops and if-elses may be nested.
+  public int loopNesting = 2;
+  public int ifNesting = 2;
+
+  // Number of int locals of each method, besides its loop counters and array.
+  public int locals = 4;
+
+  // Probability of an inner expression node being a method call.
+  public double callDensity = 0.1;
+
+  // Number of malformed while statements.
+  public int errors = 0;
+
+  public long seed = 0;
+
+  private static final String[] OPERATORS = {" + ", " - ", " * "};
+
+  private Random random;
+  private StringBuilder source;
+  private int method;
+  private int budget;
+
+  /**
+   * @return The source of a class with the given name.
+   */
+  public String generate(String className) {
+    random = new Random(seed);
+    source = new StringBuilder();
+
+    // Pick the methods which get each of the malformed statements.
+    int[] errorsOf = new int[Math.max(methods, 1)];
+    for (int i = 0; i < errors; ++i) errorsOf[random.nextInt(errorsOf.length)]++;
+
+    source.append("class ").append(className).append(" {\n");
+    source.append("    int f;\n\n");
+    source.append("    public static void main(String[] args) {\n");
+    source.append("        ").append(className).append(" o;\n");
+    source.append("        o = new ").append(className).append("();\n");
+    if (methods > 0) {
+      source.append("        ioPlus.printResult(o.m").append(methods - 1).append("(3, 4));\n");
+    }
+    source.append("    }\n");
+
+    for (method = 0; method < methods; ++method) {
+      source.append("\n    public int m").append(method).append("(int a, int b) {\n");
+      for (int i = 0; i < locals; ++i) line(2, "int l" + i + ";");
+      for (int i = 0; i < loopNesting; ++i) line(2, "int i" + i + ";");
+      line(2, "int[] arr;");
+
+      line(2, "arr = new int[" + (method % 7 + 2) + "];");
+      for (int i = 0; i < locals; ++i) line(2, "l" + i + " = " + i + ";");
+
+      ArrayList<Integer> errorPoints = new ArrayList<>();
+      for (int i = 0; i < errorsOf[method]; ++i) errorPoints.add(random.nextInt(statements + 1));
+
+      budget = statements;
+      while (budget > 0) {
+        if (errorPoints.remove(Integer.valueOf(budget))) malformed(2);
+        statement(2, 0, 0);
+      }
+      while (!errorPoints.isEmpty()) {
+        errorPoints.remove(0);
+        malformed(2);
+      }
+
+      line(2, "return " + (locals > 0 ? "l0" : "a") + ";");
+      source.append("    }\n");
+    }
+
+    return source.append("}\n").toString();
+  }
+
+  private void statement(int indent, int loops, int ifs) {
+    double r = random.nextDouble();
+
+    if (loops < loopNesting && r < 0.15 && budget > 2) {
+      String counter = "i" + loops;
+      line(indent, counter + " = 0;");
+      line(indent, "while (" + counter + " < arr.length) {");
+      block(indent + 1, loops + 1, ifs);
+      line(indent + 1, counter + " = " + counter + " + 1;");
+      line(indent, "}");
+    } else if (ifs < ifNesting && r < 0.3 && budget > 2) {
+      line(indent, "if (" + expression(expressionDepth) + " < " + expression(expressionDepth) + ") {");
+      block(indent + 1, loops, ifs + 1);
+      line(indent, "} else {");
+      block(indent + 1, loops, ifs + 1);
+      line(indent, "}");
+    } else if (r < 0.4) {
+      // Only the loop counters are known to be in bounds.
+      String index = loops > 0 ? "i" + random.nextInt(loops) : "0";
+      line(indent, "arr[" + index + "] = " + expression(expressionDepth) + ";");
+      budget--;
+    } else {
+      line(indent, local() + " = " + expression(expressionDepth) + ";");
+      budget--;
+    }
+  }
+
+  private void block(int indent, int loops, int ifs) {
+    int count = 1 + random.nextInt(3);
+    for (int i = 0; i < count && budget > 0; ++i) statement(indent, loops, ifs);
+  }
+
+  /**
+   * A while statement with a syntax error in its condition or body.
+   */
+  private void malformed(int indent) {
+    switch (random.nextInt(3)) {
+    case 0:
+      line(indent, "while (" + local() + " < ) {");
+      break;
+    case 1:
+      line(indent, "while (" + local() + " < a {");
+      break;
+    default:
+      // The parser skips a bad body up to its semicolon, so it must not be a block.
+      line(indent, "while (" + local() + " < a)");
+      line(indent + 1, local() + " = + ;");
+      return;
+    }
+    line(indent + 1, local() + " = " + local() + " + 1;");
+    line(indent, "}");
+  }
+
+  private String expression(int depth) {
+    if (depth == 0) return leaf();
+
+    if (method > 0 && random.nextDouble() < callDensity) {
+      return "this.m" + random.nextInt(method) + "(" + expression(depth - 1) + ", "
+          + expression(depth - 1) + ")";
+    }
+
+    StringBuilder expression = new StringBuilder("(").append(expression(depth - 1));
+    for (int i = 1; i < fanOut; ++i) {
+      expression.append(OPERATORS[random.nextInt(OPERATORS.length)]).append(expression(depth - 1));
+    }
+    return expression.append(")").toString();
+  }
+
+  private String leaf() {
+    switch (random.nextInt(5)) {
+    case 0:
+      return Integer.toString(random.nextInt(100));
+    case 1:
+      return random.nextBoolean() ? "a" : "b";
+    case 2:
+      return "arr.length";
+    default:
+      return locals > 0 ? "l" + random.nextInt(locals) : "f";
+    }
+  }
+
+  private String local() {
+    return locals > 0 ? "l" + random.nextInt(locals) : "f";
+  }
+
+  private void line(int indent, String line) {
+    source.append("    ".repeat(indent)).append(line).append('\n');
+  }
+
+  public static void main(String[] args) {
+    SyntheticProgram program = new SyntheticProgram();
+    String name = "Synthetic";
+
+    try {
+      for (String arg : args) {
+        String value = arg.substring(arg.indexOf('=') + 1);
+        if (arg.startsWith("--name=")) name = value;
+        else if (arg.startsWith("--methods=")) program.methods = Integer.parseInt(value);
+        else if (arg.startsWith("--statements=")) program.statements = Integer.parseInt(value);
+        else if (arg.startsWith("--depth=")) program.expressionDepth = Integer.parseInt(value);
+        else if (arg.startsWith("--fan-out=")) program.fanOut = Integer.parseInt(value);
+        else if (arg.startsWith("--loops=")) program.loopNesting = Integer.parseInt(value);
+        else if (arg.startsWith("--ifs=")) program.ifNesting = Integer.parseInt(value);
+        else if (arg.startsWith("--locals=")) program.locals = Integer.parseInt(value);
+        else if (arg.startsWith("--calls=")) program.callDensity = Double.parseDouble(value);
+        else if (arg.startsWith("--errors=")) program.errors = Integer.parseInt(value);
+        else if (arg.startsWith("--seed=")) program.seed = Long.parseLong(value);
+        else throw new IllegalArgumentException(arg);
+      }
+    } catch (IllegalArgumentException e) {
+      System.err.println("Usage: SyntheticProgram [--name=<class>] [--methods=N] [--statements=N]"
+                         + " [--depth=N] [--fan-out=N] [--loops=N] [--ifs=N] [--locals=N]"
+                         + " [--calls=P] [--errors=N] [--seed=N]");
+      System.exit(1);
+    }
+
+    System.out.print(program.generate(name));
+  }
+}
@@ -6,6 +6,7 @@ import java.io.BufferedReader;
 import java.util.stream.IntStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.StringReader;
 
 public class ParseException extends Exception {
   /**
@@ -26,8 +27,17 @@ public class ParseException extends Exception {
     currentToken = currentTokenVal;
     expectedTokenSequences = expectedTokenSequencesVal;
     tokenImage = tokenImageVal;
+
+    // Recovery moves currentToken past the error, so keep where it was.
+    Token unexpected = currentTokenVal.next;
+    line = unexpected.beginLine;
+    column = unexpected.beginColumn;
+    token = unexpected.kind == 0 ? tokenImageVal[0] : unexpected.image;
   }
 
+  private int line, column;
+  private String token;
+
   /**
    * The following constructors are for use by you for whatever purpose you can
    * think of. Constructing the exception in this manner makes the exception
@@ -73,7 +83,7 @@ public class ParseException extends Exception {
    * and you do not catch it (it gets thrown from the parser) the correct error
    * message gets displayed.
    */
-  static String file;
+  static final ThreadLocal<jmm> parser = new ThreadLocal<>();
 
   private static String initialise(Token currentToken, int[][] expectedTokenSequences, String[] tokenImage) {
     String eol = System.getProperty("line.separator", "\n");
@@ -90,15 +100,18 @@ public class ParseException extends Exception {
         expected.append(", ");
     }
 
+    jmm current = parser.get();
+    String file = current != null ? current.file : null;
+
     Token tok = currentToken.next;
     String retval = file + ": at line " + currentToken.next.beginLine + ", column " + currentToken.next.beginColumn
         + "." + eol + "\t Syntactic error: ";
 
-    try {
+    try (BufferedReader br = new BufferedReader(current != null && current.source != null
+                                                    ? new StringReader(current.source)
+                                                    : new FileReader(file))) {
       String line = "";
       int lineNo = 1;
-      FileReader fr = new FileReader(ParseException.file);
-      BufferedReader br = new BufferedReader(fr);
       while ((line = br.readLine()) != null) {
         if (lineNo == currentToken.next.beginLine) {
           retval += line;
@@ -224,14 +237,15 @@ public class ParseException extends Exception {
   // it does: A1 null -> A2 null OR A1 A2 -> A2 null
   // what we want: A1 null -> A2 A3 OR A1 A2 -> A2 A3
   private Token jmmSkip() {
-    Token a2 = jmm.getNextToken();
-    Token a3 = jmm.getNextToken();
+    jmm current = parser.get();
+    Token a2 = current.getNextToken();
+    Token a3 = current.getNextToken();
     a2.next = a3;
-    jmm.token = a2;
+    current.token = a2;
     return a2;
   }
 
-  ParseException skipto(int kind) {
+  ParseException skipto(int kind) throws ParseException {
     explain();
     int count = 0;
     while (currentToken.next.kind != kind) {
@@ -242,7 +256,7 @@ public class ParseException extends Exception {
     return this;
   }
 
-  ParseException skipto(int[] kinds) {
+  ParseException skipto(int[] kinds) throws ParseException {
     explain();
     int count = 0;
     while (!IntStream.of(kinds).anyMatch(x -> x == currentToken.next.kind)) {
@@ -253,7 +267,7 @@ public class ParseException extends Exception {
     return this;
   }
 
-  ParseException skipn(int n) {
+  ParseException skipn(int n) throws ParseException {
     explain();
     int count = 0;
     while (count < n) {
@@ -264,7 +278,7 @@ public class ParseException extends Exception {
     return this;
   }
 
-  ParseException skip(int n, int kind) {
+  ParseException skip(int n, int kind) throws ParseException {
     explain();
     int count = 0;
     while (count < n && currentToken.next.kind != kind) {
@@ -275,7 +289,7 @@ public class ParseException extends Exception {
     return this;
   }
 
-  ParseException skip(int n, int[] kinds) {
+  ParseException skip(int n, int[] kinds) throws ParseException {
     explain();
     int count = 0;
     while (count < n && !IntStream.of(kinds).anyMatch(x -> x == currentToken.next.kind)) {
@@ -286,61 +300,81 @@ public class ParseException extends Exception {
     return this;
   }
 
-  ParseException skiptoif(int is, int kind) {
+  ParseException skiptoif(int is, int kind) throws ParseException {
     if (currentToken.next.kind == is)
       skipto(kind);
     return this;
   }
 
-  ParseException skiptoif(int is, int[] kinds) {
+  ParseException skiptoif(int is, int[] kinds) throws ParseException {
     if (currentToken.next.kind == is)
       skipto(kinds);
     return this;
   }
 
-  ParseException skipnif(int is, int n) {
+  ParseException skipnif(int is, int n) throws ParseException {
     if (currentToken.next.kind == is)
       skipn(n);
     return this;
   }
 
-  ParseException skipif(int is, int n, int kind) {
+  ParseException skipif(int is, int n, int kind) throws ParseException {
     if (currentToken.next.kind == is)
       skip(n, kind);
     return this;
   }
 
-  ParseException skipif(int is, int n, int[] kinds) {
+  ParseException skipif(int is, int n, int[] kinds) throws ParseException {
     if (currentToken.next.kind == is)
       skip(n, kinds);
     return this;
   }
 
-  ParseException advance() {
+  ParseException advance() throws ParseException {
     return skipn(0);
   }
 
-  ParseException consume() {
+  ParseException consume() throws ParseException {
     return skipn(1);
   }
 
-  ParseException consumeif(int is) {
+  ParseException consumeif(int is) throws ParseException {
     return skipnif(is, 1);
   }
 
-  void explain() {
+  void explain() throws ParseException {
+    jmm current = parser.get();
     if (!explained) {
-      if (--ParseException.numberRecoveries < 0) {
-        System.out.println("Exceeded maximum number of recoveries.");
-        System.exit(1);
+      if (--current.recoveries < 0) {
+        throw new ParseException("Exceeded maximum number of recoveries.");
       }
 
-      System.err.println(toString());
+      current.err.println(toString());
+      current.errors.add(this);
     }
     explained = true;
-    jmm.has_error = true;
-    // handle number of recoveries here
-    // if (too many recoveries) throw this;
+    current.has_error = true;
+  }
+
+  /**
+   * @return The line of the unexpected token, or 0 if there is none.
+   */
+  public int getLine() {
+    return line;
+  }
+
+  /**
+   * @return The column of the unexpected token, or 0 if there is none.
+   */
+  public int getColumn() {
+    return column;
+  }
+
+  /**
+   * @return The unexpected token, or null if there is none.
+   */
+  public String getToken() {
+    return token;
   }
 
   @Override
@@ -0,0 +1,72 @@
+package compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The thin client of CompileServer: it forwards its working directory and arguments to the
+ * server, along with the server's token, and copies back the diagnostics and output it streams, exiting with its status.
+ *
+ * When no server is running the arguments are compiled right here instead.
+ */
+final class CompileClient {
+  private CompileClient() {}
+
+  /**
+   * @return The exit status of the request.
+   */
+  static int request(int port, String[] args) {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      Path tokenFile = CompileServer.tokenFile(port);
+      String token;
+      try {
+        token = new String(Files.readAllBytes(tokenFile), StandardCharsets.US_ASCII);
+      } catch (IOException e) {
+        System.err.println("Compile server token could not be read from " + tokenFile + ": " + e.getMessage());
+        return 1;
+      }
+
+      DataOutputStream request = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      request.writeUTF(token);
+      request.writeUTF(new File("").getAbsolutePath());
+      request.writeInt(args.length);
+      for (String arg : args) {
+        request.writeUTF(arg);
+      }
+      request.flush();
+
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      while (true) {
+        byte kind = in.readByte();
+        if (kind == CompileServer.EXIT) return in.readInt();
+
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        PrintStream stream = kind == CompileServer.OUT ? System.out : System.err;
+        stream.write(bytes, 0, bytes.length);
+        stream.flush();
+      }
+    } catch (ConnectException e) {
+      if (args.length == 1 && args[0].equals(CompileServer.SHUTDOWN)) return 0;
+      return Compiler.run(args, null, System.out, System.err);
+    } catch (EOFException e) {
+      System.err.println("Compile server closed the connection.");
+      return 1;
+    } catch (IOException e) {
+      System.err.println("Compile server request failed: " + e.getMessage());
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A resident compiler, which keeps a warmed up JVM around to serve many compilations.
+ *
+ * The server listens on a loopback port. Each connection is one request, made by CompileClient:
+ * the client's working directory and its command line arguments. The request is compiled as if
+ * the compiler had been run by the client, in a thread of its own, and its output is streamed back
+ * in frames as it is produced, ending with the exit status.
+ *
+ * Any local user can connect to a loopback port, so the server only answers the users who can read
+ * its token: a random string written, on start, to a file in the home directory that only its
+ * owner can read (see tokenFile). Each request starts with the token, and a connection which does
+ * not is closed unanswered.
+ *
+ * Request:  UTF token, UTF directory, int argc, argc * UTF argument.
+ * Response: any number of (byte OUT|ERR, int length, length * byte) frames,
+ *           then (byte EXIT, int status).
+ *
+ * The request --shutdown stops the server, once the requests under way are answered.
+ */
+final class CompileServer {
+  static final int DEFAULT_PORT = 7347;
+
+  static final byte OUT = 'O';
+  static final byte ERR = 'E';
+  static final byte EXIT = 'X';
+
+  static final String SHUTDOWN = "--shutdown";
+
+  /** How long the requests under way are given to finish when the server is shut down. */
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+  private CompileServer() {}
+
+  /**
+   * @return The file holding the token of the server on the port.
+   */
+  static Path tokenFile(int port) {
+    return Paths.get(System.getProperty("user.home"), ".jmm-server-" + port + ".token");
+  }
+
+  /**
+   * Write a new random token to a file only its owner can read, replacing any left by a server
+   * which did not stop cleanly.
+   *
+   * @return The token.
+   */
+  private static String writeToken(Path file) throws IOException {
+    byte[] bytes = new byte[32];
+    new SecureRandom().nextBytes(bytes);
+    StringBuilder token = new StringBuilder();
+    for (byte b : bytes) {
+      token.append(String.format("%02x", b));
+    }
+
+    Files.deleteIfExists(file);
+    try {
+      Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    } catch (UnsupportedOperationException e) {
+      File f = Files.createFile(file).toFile();
+      if (!(f.setReadable(false, false) && f.setReadable(true, true)
+          && f.setWritable(false, false) && f.setWritable(true, true))) {
+        Files.delete(file);
+        throw new IOException("cannot make " + file + " readable by its owner only");
+      }
+    }
+    Files.write(file, token.toString().getBytes(StandardCharsets.US_ASCII));
+    return token.toString();
+  }
+
+  /**
+   * Serve requests until shut down.
+   *
+   * @return The exit status of the server.
+   */
+  static int serve(int port) {
+    ServerSocket server;
+    try {
+      server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    } catch (IOException e) {
+      System.err.println("Compile server could not listen on port " + port + ": " + e.getMessage());
+      return 1;
+    }
+
+    Path tokenFile = tokenFile(server.getLocalPort());
+    byte[] token;
+    try {
+      token = writeToken(tokenFile).getBytes(StandardCharsets.US_ASCII);
+    } catch (IOException e) {
+      System.err.println("Compile server could not write its token to " + tokenFile + ": " + e.getMessage());
+      try {
+        server.close();
+      } catch (IOException f) {
+      }
+      return 1;
+    }
+
+    System.err.println("Compile server listening on port " + server.getLocalPort() + ".");
+    ExecutorService workers = Executors.newCachedThreadPool();
+    int status = 0;
+
+    try {
+      while (true) {
+        Socket socket = server.accept();
+        workers.execute(() -> handle(socket, server, token));
+      }
+    } catch (IOException e) {
+      // A shutdown request closes the server socket under accept().
+      if (!server.isClosed()) {
+        System.err.println("Compile server failed: " + e.getMessage());
+        status = 1;
+      }
+    } finally {
+      workers.shutdown();
+      try {
+        server.close();
+      } catch (IOException e) {
+      }
+    }
+
+    try {
+      if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        System.err.println("Compile server stopped with requests still under way.");
+        workers.shutdownNow();
+        status = 1;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      workers.shutdownNow();
+      status = 1;
+    }
+
+    try {
+      Files.deleteIfExists(tokenFile);
+    } catch (IOException e) {
+    }
+
+    return status;
+  }
+
+  private static void handle(Socket socket, ServerSocket server, byte[] token) {
+    try (Socket s = socket) {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+      DataOutputStream response = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+
+      byte[] given = in.readUTF().getBytes(StandardCharsets.US_ASCII);
+      if (!MessageDigest.isEqual(given, token)) return;
+
+      String directory = in.readUTF();
+      String[] args = new String[in.readInt()];
+      for (int i = 0; i < args.length; ++i) {
+        args[i] = in.readUTF();
+      }
+
+      int status;
+      if (args.length == 1 && args[0].equals(SHUTDOWN)) {
+        status = 0;
+        server.close();
+      } else {
+        PrintStream out = new PrintStream(new FrameOutputStream(response, OUT), true);
+        PrintStream err = new PrintStream(new FrameOutputStream(response, ERR), true);
+        status = Compiler.run(args, new File(directory), out, err);
+        out.flush();
+        err.flush();
+      }
+
+      synchronized (response) {
+        response.writeByte(EXIT);
+        response.writeInt(status);
+        response.flush();
+      }
+    } catch (IOException e) {
+      // The client went away; nothing left to answer.
+    }
+  }
+
+  /**
+   * Sends everything written to it as frames of one kind. Both streams of a request share the
+   * connection, so each frame is written whole.
+   */
+  private static final class FrameOutputStream extends OutputStream {
+    private final DataOutputStream response;
+    private final byte kind;
+
+    FrameOutputStream(DataOutputStream response, byte kind) {
+      this.response = response;
+      this.kind = kind;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (len == 0) return;
+      synchronized (response) {
+        response.writeByte(kind);
+        response.writeInt(len);
+        response.write(b, off, len);
+        response.flush();
+      }
+    }
+  }
+}
@@ -1,24 +1,150 @@
 package compiler;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import compiler.exceptions.CompilationException;
+import compiler.modules.BatchCompiler;
+import compiler.modules.BuildCache;
 import compiler.modules.ClassCompiler;
+import compiler.modules.CompilationOptions;
+import compiler.modules.CompilationStats;
+import compiler.modules.CompilationStatus.Codes;
 
 final class Compiler {
   private static Compiler compiler;
 
+  private static final String USAGE =
+      "Usage: java Compiler [-r=<num>] [-o] [-j=<num>] [--emit=jasmin|class] [--assemble]"
+      + " [--parallel-methods] [--cache[=<dir>]]"
+      + " [--stats[=text|json]] FILE|DIRECTORY...\n"
+      + "       java Compiler --server[=<port>]\n"
+      + "       java Compiler --client[=<port>] [OPTION]... FILE|DIRECTORY...";
+
+  private static final String DEFAULT_CACHE = ".jmmcache";
+
   public Compiler get() {
     return compiler;
   }
 
   public static void main(String[] args) {
+    if (args.length > 0 && args[0].startsWith("--server")) {
+      System.exit(CompileServer.serve(port(args[0], "--server")));
+    }
+    if (args.length > 0 && args[0].startsWith("--client")) {
+      String[] rest = Arrays.copyOfRange(args, 1, args.length);
+      System.exit(CompileClient.request(port(args[0], "--client"), rest));
+    }
+
+    System.exit(run(args, null, System.out, System.err));
+  }
+
+  /**
+   * Run the compiler once, as if from the command line.
+   *
+   * @param args      The command line arguments.
+   * @param directory The working directory, against which relative paths are resolved, or null
+   *                  for the current one.
+   * @param out       The standard output.
+   * @param err       Where the diagnostics are written to.
+   * @return The exit status: zero if all the files were compiled.
+   */
+  static int run(String[] args, File directory, PrintStream out, PrintStream err) {
     // Parse option arguments...
-    if (args.length == 0) {
-      System.out.println("Usage: java Compiler FILE");
-      return;
+    CompilationOptions options = new CompilationOptions();
+    options.outputDirectory = resolve(directory, options.outputDirectory.getPath());
+    int jobs = Runtime.getRuntime().availableProcessors();
+    ArrayList<File> paths = new ArrayList<>();
+
+    try {
+      for (String arg : args) {
+        if (arg.startsWith("-j=")) {
+          jobs = Integer.parseInt(arg.substring(3));
+          if (jobs < 1) return usage(out);
+        } else if (arg.startsWith("-r=")) {
+          options.registers = Integer.parseInt(arg.substring(3));
+          if (options.registers < 0) return usage(out);
+        } else if (arg.equals("-o")) {
+          options.optimize = true;
+        } else if (arg.equals("--emit=class")) {
+          options.classFiles = true;
+        } else if (arg.equals("--emit=jasmin")) {
+          options.classFiles = false;
+        } else if (arg.equals("--assemble")) {
+          options.assemble = true;
+        } else if (arg.equals("--parallel-methods")) {
+          options.parallelMethods = true;
+        } else if (arg.equals("--cache")) {
+          options.cache = new BuildCache(resolve(directory, DEFAULT_CACHE));
+        } else if (arg.startsWith("--cache=")) {
+          options.cache = new BuildCache(resolve(directory, arg.substring(8)));
+        } else if (arg.equals("--stats") || arg.equals("--stats=text")) {
+          options.stats = CompilationStats.Format.TEXT;
+        } else if (arg.equals("--stats=json")) {
+          options.stats = CompilationStats.Format.JSON;
+        } else if (arg.startsWith("-")) {
+          return usage(out);
+        } else {
+          paths.add(resolve(directory, arg));
+        }
+      }
+    } catch (NumberFormatException e) {
+      return usage(out);
+    }
+
+    if (paths.isEmpty()) return usage(out);
+
+    List<File> sources;
+    try {
+      sources = BatchCompiler.collect(paths);
+    } catch (IOException e) {
+      err.println(e.getMessage());
+      return 1;
     }
 
-    String source = args[args.length - 1];
-    new ClassCompiler(new File(source)).compile();
+    int status;
+
+    // A single file is compiled right here, with its diagnostics printed as they come.
+    if (sources.size() == 1 && !paths.get(0).isDirectory()) {
+      try {
+        ClassCompiler single = new ClassCompiler(sources.get(0), options, err).compile();
+        status = single.status() >= Codes.MINOR_ERRORS ? 1 : 0;
+      } catch (CompilationException e) {
+        err.println(e.getMessage());
+        status = 1;
+      }
+    } else {
+      BatchCompiler batch = new BatchCompiler(sources, options, jobs, err).compile();
+      status = batch.failures() > 0 ? 1 : 0;
+    }
+
+    if (options.cache != null) err.println(options.cache);
+    return status;
+  }
+
+  private static File resolve(File directory, String path) {
+    File file = new File(path);
+    return file.isAbsolute() ? file : new File(directory, path);
+  }
+
+  /**
+   * @return The port given as in --server=<port>, or the default one.
+   */
+  private static int port(String arg, String option) {
+    if (arg.equals(option)) return CompileServer.DEFAULT_PORT;
+    if (!arg.startsWith(option + "=")) {
+      usage(System.out);
+      System.exit(1);
+    }
+    return Integer.parseInt(arg.substring(option.length() + 1));
+  }
+
+  private static int usage(PrintStream out) {
+    out.println(USAGE);
+    return 1;
   }
 }
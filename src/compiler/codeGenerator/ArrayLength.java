@@ -1,5 +1,7 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGExpression;
 import compiler.dag.DAGLength;
 
@@ -7,8 +9,8 @@ public class ArrayLength extends MethodBodyContent {
 
     /**
      * 1. Expression corresponding to an array
+     * 2. arraylength
      */
-    private static String ARRAYLENGTH = "?\n\tarraylength";
     private DAGExpression expression;
 
     public ArrayLength(Function function, DAGLength dagLength) {
@@ -17,9 +19,8 @@ public class ArrayLength extends MethodBodyContent {
     }
 
     @Override
-    public String toString() {
-        Expression lengthExpression = new Expression(this.function, this.expression);
-        String lengthExpressionContent = lengthExpression.toString();
-        return subst(ARRAYLENGTH, lengthExpressionContent);
+    public void generate(InstructionList code) {
+        new Expression(this.function, this.expression).generate(code);
+        code.add(Opcode.ARRAYLENGTH);
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,12 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
+import compiler.dag.BinaryOperator;
 import compiler.dag.DAGAssignment;
+import compiler.dag.DAGBinaryOp;
 import compiler.dag.DAGExpression;
+import compiler.dag.DAGIntegerConstant;
 import compiler.dag.DAGMember;
 import compiler.dag.DAGVariable;
 
@@ -21,23 +26,60 @@ public class Assignment extends BaseStatement {
     }
 
     @Override
-    public String toString()
+    public void generate(InstructionList code)
     {
-        String assignmentBody = new String();
-        String variableStore= new String();
+        if(this.increment(code))
+            return;
+
+        expressionBody.generate(code);
 
         if(this.variable instanceof DAGMember)
-        {
-            StoreMember storeMember =  new StoreMember((DAGMember)variable);
-            variableStore = storeMember.toString();
-        }
+            new StoreMember((DAGMember)variable).generate(code);
         else
-        {
-            Store store = new Store(this.function, (DAGVariable)variable);
-            variableStore = store.toString();
-        }
+            new Store(this.function, variable).generate(code);
+    }
 
-        assignmentBody = assignmentBody.concat(expressionBody.toString()).concat(variableStore);
-        return assignmentBody;
+    /**
+     * local = local + c, local = c + local and local = local - c, for a constant c which fits in the
+     * two bytes of a wide iinc, increment the local in place:
+     *
+     *    iinc local c
+     *
+     * @return Whether the assignment was one of them.
+     */
+    private boolean increment(InstructionList code)
+    {
+        if(!(this.expression instanceof DAGBinaryOp) || this.variable instanceof DAGMember)
+            return false;
+        int slot = this.function.slotOf(this.variable.getVariable());
+        // A shared expression is evaluated the first time, to be kept for the later references.
+        if(slot < 0 || (this.function.isShared(expression) && this.function.temporaryOf(expression) < 0))
+            return false;
+
+        DAGBinaryOp binaryOp = (DAGBinaryOp) this.expression;
+        DAGExpression lhs = binaryOp.getLhs(), rhs = binaryOp.getRhs();
+        long increment;
+        if(binaryOp.getOperator() == BinaryOperator.SUM && this.isVariable(lhs) && rhs instanceof DAGIntegerConstant)
+            increment = ((DAGIntegerConstant) rhs).getValue();
+        else if(binaryOp.getOperator() == BinaryOperator.SUM && this.isVariable(rhs) && lhs instanceof DAGIntegerConstant)
+            increment = ((DAGIntegerConstant) lhs).getValue();
+        else if(binaryOp.getOperator() == BinaryOperator.SUB && this.isVariable(lhs) && rhs instanceof DAGIntegerConstant)
+            increment = -(long) ((DAGIntegerConstant) rhs).getValue();
+        else
+            return false;
+        if(increment < Short.MIN_VALUE || increment > Short.MAX_VALUE)
+            return false;
+
+        code.add(Opcode.IINC, slot, (int) increment);
+        return true;
+    }
+
+    /**
+     * @return Whether the expression reads the assigned variable.
+     */
+    private boolean isVariable(DAGExpression expression)
+    {
+        return expression instanceof DAGVariable && !(expression instanceof DAGMember)
+            && ((DAGVariable) expression).getVariable() == this.variable.getVariable();
     }
 }
@@ -8,8 +8,5 @@ public abstract class BaseStatement extends MethodBodyContent {
     public BaseStatement(Function function) {
         super(function);
     }
-    
-    @Override
-    public abstract String toString();
 
-}
\ No newline at end of file
+}
@@ -1,10 +1,13 @@
 package compiler.codeGenerator;
 
-import compiler.codeGenerator.utils.LabelGenerator;
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Label;
+import compiler.codeGenerator.ir.Opcode;
+import compiler.codeGenerator.optimizer.StrengthReduction;
 import compiler.dag.BinaryOperator;
 import compiler.dag.DAGBinaryOp;
 import compiler.dag.DAGExpression;
-import compiler.exceptions.InternalCompilerError;
+import compiler.dag.DAGIntegerConstant;
 
 public class BinaryOperation extends MethodBodyContent {
 
@@ -13,42 +16,28 @@ public class BinaryOperation extends MethodBodyContent {
     /**
      * SUM, SUB, MUL, DIV
      *
-     *    $lhs...        [\n\t]?
-     *    $rhs...        [\n\t]?
-     *    op             \n\tOP
-     */
-    private static String SUM = "??\n\tiadd";
-    private static String SUB = "??\n\tisub";
-    private static String MUL = "??\n\timul";
-    private static String DIV = "??\n\tidiv";
-
-    /**
-     * AND:
+     *    $lhs...
+     *    $rhs...
+     *    op
      *
-     *    $lhs...         [\n\t]?                1 lhs
-     *    ifeq A          \n\tifeq ?             2 label A
-     *    $rhs...         [\n\t]?                3 rhs
-     *    ifeq A          \n\tifeq ?             4 label A
-     *    iconst_1        \n\ticonst_1
-     *    goto B          \n\tgoto ?             5 label B
-     * A: iconst_0        \n?:\n\ticonst_0       6 label A
-     * B: ...             \n?:                   7 label B
-     */
-    private static String AND = "?\n\tifeq ??\n\tifeq ?\n\ticonst_1\n\tgoto ?\n?:\n\ticonst_0\n?:";
-
-    /**
-     * LESS:
+     * AND, when both operands are evaluated without jumps, and the rhs has no effects and cannot
+     * throw (see ConditionalJump.isStraight):
+     *
+     *    $lhs...
+     *    $rhs...
+     *    iand
+     *
+     * Any other AND, and LESS:
      *
-     *    $lhs...         [\n\t]?                1 lhs
-     *    $rhs...         [\n\t]?                2 rhs
-     *    if_icmpge A     \n\tif_icmpge ?        3 label A
-     *    iconst_1        \n\ticonst_1
-     *    goto B          \n\tgoto ?             4 label B
-     * A: iconst_0        \n?: iconst_0          5 label A
-     * B: ...             \n?:                   6 label B
+     *    $jump to A if false...    (see ConditionalJump)
+     *    iconst_1
+     *    goto B
+     * A: iconst_0
+     * B: ...
+     *
+     * With -o, a multiplication or a division by a constant is reduced to shifts, or to a long
+     * multiplication, by StrengthReduction.
      */
-    private static String LT = "??\n\tif_icmpge ?\n\ticonst_1\n\tgoto ?\n?:\n\ticonst_0\n?:";
-
     BinaryOperation(Function function, DAGBinaryOp expression)
     {
         super(function);
@@ -56,35 +45,96 @@ public class BinaryOperation extends MethodBodyContent {
     }
 
     @Override
-    public String toString()
+    @SuppressWarnings("fallthrough")
+    public void generate(InstructionList code)
     {
         DAGExpression lhs = expression.getLhs(), rhs = expression.getRhs();
         BinaryOperator op = expression.getOperator();
-        String lhsStr = new Expression(this.function, lhs).toString();
-        String rhsStr = new Expression(this.function, rhs).toString();
+        Expression lhsBody = new Expression(this.function, lhs);
+        Expression rhsBody = new Expression(this.function, rhs);
 
         switch(op){
-            case SUM:
-                return subst(SUM, lhsStr, rhsStr);
-            case SUB:
-                return subst(SUB, lhsStr, rhsStr);
-            case MUL:
-                return subst(MUL, lhsStr, rhsStr);
-            case DIV:
-                return subst(DIV, lhsStr, rhsStr);
-            case AND: {
-                String A = LabelGenerator.nextLabel();
-                String B = LabelGenerator.nextLabel();
-                return subst(AND, lhsStr, A, rhsStr, A, B, A, B);
-            }
+            case AND:
+                if(ConditionalJump.isStraight(this.function, expression)) {
+                    lhsBody.generate(code);
+                    rhsBody.generate(code);
+                    code.add(Opcode.IAND);
+                    return;
+                }
+                // fall through: an && which is not straight is evaluated as jumping code, as < is
             case LT: {
-                String A = LabelGenerator.nextLabel();
-                String B = LabelGenerator.nextLabel();
-                return subst(LT, lhsStr, rhsStr, A, B, A, B);
+                Label A = code.newLabel(), B = code.newLabel();
+                new ConditionalJump(this.function, expression).evaluate(code, false, A);
+                pushBoolean(code, A, B);
+                return;
             }
+            case MUL:
+                // c * x, with x * c left to applyTo
+                if(this.function.data.options.optimize && !reduces(op, rhs) && reduces(op, lhs)) {
+                    rhsBody.generate(code);
+                    StrengthReduction.multiply(code, constant(lhs));
+                    return;
+                }
+                break;
+            default:
+                break;
         }
 
-        throw new InternalCompilerError();
+        // x op x, with x referenced from here only: evaluate x once and duplicate it.
+        if(lhs == rhs && this.function.referencesTo(lhs) == 2 && this.function.isShared(lhs)
+                && this.function.temporaryOf(lhs) < 0) {
+            lhsBody.evaluate(code);
+            code.add(Opcode.DUP);
+            code.add(Operator.opcode(op));
+        } else {
+            lhsBody.generate(code);
+            this.applyTo(code);
+        }
     }
 
+    /**
+     * Applies the arithmetic operation to the value of its lhs, already on the stack: evaluates the
+     * rhs, and operates on both.
+     */
+    void applyTo(InstructionList code)
+    {
+        DAGExpression rhs = expression.getRhs();
+        BinaryOperator op = expression.getOperator();
+        if(this.function.data.options.optimize && reduces(op, rhs)) {
+            if(op == BinaryOperator.MUL)
+                StrengthReduction.multiply(code, constant(rhs));
+            else
+                StrengthReduction.divide(code, constant(rhs));
+            return;
+        }
+        new Expression(this.function, rhs).generate(code);
+        code.add(Operator.opcode(op));
+    }
+
+    /**
+     * @return Whether the operand is a constant the multiplication or division by which is reduced.
+     */
+    private static boolean reduces(BinaryOperator op, DAGExpression operand) {
+        if(!(operand instanceof DAGIntegerConstant)) return false;
+        switch(op) {
+            case MUL: return StrengthReduction.reducesMultiplication(constant(operand));
+            case DIV: return StrengthReduction.reducesDivision(constant(operand));
+            default: return false;
+        }
+    }
+
+    private static int constant(DAGExpression operand) {
+        return ((DAGIntegerConstant) operand).getValue();
+    }
+
+    /**
+     * Pushes true, or false if jumped to A, and goes on at B.
+     */
+    static void pushBoolean(InstructionList code, Label A, Label B) {
+        code.iconst(1);
+        code.add(Opcode.GOTO, B);
+        code.place(A);
+        code.iconst(0);
+        code.place(B);
+    }
 }
@@ -1,23 +1,18 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
 import compiler.dag.DAGBooleanConstant;
 
-public class BooleanConstant extends JVMInst {
+public class BooleanConstant {
 
-    private static String pushTrue = "\n\ticonst_1";
-    private static String pushFalse = "\n\ticonst_0";
     private boolean booleanValue;
 
     public BooleanConstant(DAGBooleanConstant dagBooleanConstant) {
         this.booleanValue = dagBooleanConstant.getValue();
     }
 
-    @Override
-    public String toString()
+    public void generate(InstructionList code)
     {
-        if(booleanValue)
-            return pushTrue;
-        else
-            return pushFalse;
+        code.iconst(booleanValue ? 1 : 0);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGBracket;
 import compiler.dag.DAGExpression;
 
@@ -8,8 +10,8 @@ public class BracketAccess extends MethodBodyContent {
     /**
      * 1. Load reference to the given array
      * 2. Push the array's index
+     * 3. iaload
      */
-    private static String AALOAD = "??\n\tiaload";
     private DAGExpression arrayReference;
     private DAGExpression indexExpression;
 
@@ -20,14 +22,9 @@ public class BracketAccess extends MethodBodyContent {
     }
 
     @Override
-    public String toString() {
-
-        Expression reference = new Expression(this.function, this.arrayReference);
-        String referenceContent = reference.toString();
-
-        Expression expression = new Expression(this.function, indexExpression);
-        String expressionContent = expression.toString();
-
-        return subst(AALOAD, referenceContent, expressionContent);
+    public void generate(InstructionList code) {
+        new Expression(this.function, this.arrayReference).generate(code);
+        new Expression(this.function, indexExpression).generate(code);
+        code.add(Opcode.IALOAD);
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,15 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
+import compiler.dag.DAGBinaryOp;
+import compiler.dag.DAGBracket;
 import compiler.dag.DAGBracketAssignment;
+import compiler.dag.DAGCall;
 import compiler.dag.DAGExpression;
+import compiler.dag.DAGNew;
+import compiler.dag.DAGNode;
+import compiler.dag.DAGNodes;
 
 public class BracketAssignment extends Assignment {
 
@@ -9,8 +17,19 @@ public class BracketAssignment extends Assignment {
      * 1. Load reference to the given array
      * 2. Push the array's index
      * 3. Load value to be assigned to the a position of the array
+     * 4. iastore
+     *
+     * a[i] = a[i] op x, for an arithmetic op, loads the element from the array and index already
+     * on the stack:
+     *
+     *    $a...
+     *    $i...
+     *    dup2
+     *    iaload
+     *    $x...
+     *    op
+     *    iastore
      */
-    private static String IASTORE = "???\n\tiastore";
     private DAGExpression indexExpression;
 
     public BracketAssignment(Function function, DAGBracketAssignment statement) {
@@ -19,14 +38,54 @@ public class BracketAssignment extends Assignment {
     }
 
     @Override
-    public String toString() {
-        
-        Variable bracketAccess = new Variable(this.function, this.variable);
-        String referenceLoad = bracketAccess.toString();
+    public void generate(InstructionList code) {
+        DAGBracket element = this.updatedElement();
+        new Variable(this.function, this.variable).generate(code);
+        Expression index = new Expression(this.function, indexExpression);
+        // The index, referenced from here only, is duplicated rather than kept.
+        if(element != null && element.getIndexExpression() == indexExpression
+                && this.function.referencesTo(indexExpression) == 2 && this.function.isShared(indexExpression)
+                && this.function.temporaryOf(indexExpression) < 0)
+            index.evaluate(code);
+        else
+            index.generate(code);
 
-        Expression expression = new Expression(this.function, indexExpression);
-        String expressionContent = expression.toString();
+        if(element != null) {
+            code.add(Opcode.DUP2);
+            code.add(Opcode.IALOAD);
+            this.function.keep(element, code);
+            new BinaryOperation(this.function, (DAGBinaryOp) expression).applyTo(code);
+            this.function.keep(expression, code);
+        } else
+            expressionBody.generate(code);
+        code.add(Opcode.IASTORE);
+    }
+
+    /**
+     * @return The element a[i] of a[i] = a[i] op x, when evaluating the array and the index again
+     *         would give the same element: the index has no calls or allocations. null for any
+     *         other assignment, or if either the element or the operation was evaluated before.
+     */
+    private DAGBracket updatedElement() {
+        if(!(expression instanceof DAGBinaryOp) || !((DAGBinaryOp) expression).isArithmetic()
+                || this.function.temporaryOf(expression) >= 0)
+            return null;
+        DAGExpression lhs = ((DAGBinaryOp) expression).getLhs();
+        if(!(lhs instanceof DAGBracket) || this.function.temporaryOf(lhs) >= 0)
+            return null;
+        DAGBracket element = (DAGBracket) lhs;
+        if(!element.getArrayExpression().equals(this.variable)
+                || !element.getIndexExpression().equals(indexExpression) || hasEffects(indexExpression))
+            return null;
+        return element;
+    }
 
-        return subst(IASTORE, referenceLoad, expressionContent, expressionBody.toString());
+    private static boolean hasEffects(DAGNode node) {
+        if(node instanceof DAGCall || node instanceof DAGNew)
+            return true;
+        for(DAGNode child : DAGNodes.children(node))
+            if(hasEffects(child))
+                return true;
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,149 @@
+package compiler.codeGenerator;
+
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Label;
+import compiler.codeGenerator.ir.Opcode;
+import compiler.dag.BinaryOperator;
+import compiler.dag.DAGBinaryOp;
+import compiler.dag.DAGBooleanConstant;
+import compiler.dag.DAGExpression;
+import compiler.dag.DAGIntegerConstant;
+import compiler.dag.DAGNodes;
+import compiler.dag.DAGNot;
+
+/**
+ * The jumping code of a condition: it jumps to a label when the condition has a given value, and
+ * goes on otherwise, without pushing the value of the condition.
+ *
+ * Jump to A when the condition is true:
+ *
+ * a < b:      $a... $b... if_icmplt A
+ * a < 0:      $a... iflt A
+ * 0 < b:      $b... ifgt A
+ * !c:         c, jumping to A when it is false
+ * c && d:     c, jumping to B when it is false; d, jumping to A when it is true; B: ...
+ * true:       goto A
+ * false:      nothing
+ * otherwise:  $c... ifne A
+ *
+ * and the other way round when it is false, with c && d jumping to A when either is false.
+ */
+public class ConditionalJump {
+
+    private Function function;
+    private DAGExpression condition;
+
+    public ConditionalJump(Function function, DAGExpression condition) {
+        this.function = function;
+        this.condition = condition;
+    }
+
+    /**
+     * Jumps to the target when the condition has the given value, and goes on otherwise.
+     */
+    public void generate(InstructionList code, boolean when, Label target) {
+        jump(this.condition, when, target, code, false);
+    }
+
+    /**
+     * As generate, for the code evaluating the value of the condition itself, which a shared
+     * condition does not load or evaluate either.
+     */
+    void evaluate(InstructionList code, boolean when, Label target) {
+        jump(this.condition, when, target, code, true);
+    }
+
+    private void jump(DAGExpression condition, boolean when, Label target, InstructionList code) {
+        jump(condition, when, target, code, false);
+    }
+
+    private void jump(DAGExpression condition, boolean when, Label target, InstructionList code,
+                      boolean expand) {
+        if(condition instanceof DAGBooleanConstant) {
+            if(((DAGBooleanConstant) condition).getValue() == when)
+                code.add(Opcode.GOTO, target);
+            return;
+        }
+
+        // A shared condition is evaluated for its value once, to be kept for the other references.
+        if(expand || (this.function.temporaryOf(condition) < 0 && !this.function.isShared(condition))) {
+            if(condition instanceof DAGNot) {
+                jump(((DAGNot) condition).getExpression(), !when, target, code);
+                return;
+            }
+            if(condition instanceof DAGBinaryOp) {
+                DAGBinaryOp binaryOp = (DAGBinaryOp) condition;
+                if(binaryOp.getOperator() == BinaryOperator.AND) {
+                    and(binaryOp, when, target, code);
+                    return;
+                }
+                if(binaryOp.getOperator() == BinaryOperator.LT) {
+                    lessThan(binaryOp, when, target, code);
+                    return;
+                }
+            }
+        }
+
+        new Expression(this.function, condition).generate(code);
+        code.add(when ? Opcode.IFNE : Opcode.IFEQ, target);
+    }
+
+    /**
+     * The rhs is only evaluated when the lhs is true, so whatever it keeps is scoped.
+     */
+    private void and(DAGBinaryOp and, boolean when, Label target, InstructionList code) {
+        if(when) {
+            Label skip = code.newLabel();
+            jump(and.getLhs(), false, skip, code);
+            int scope = this.function.openScope();
+            jump(and.getRhs(), true, target, code);
+            this.function.closeScope(scope);
+            code.place(skip);
+        } else {
+            jump(and.getLhs(), false, target, code);
+            int scope = this.function.openScope();
+            jump(and.getRhs(), false, target, code);
+            this.function.closeScope(scope);
+        }
+    }
+
+    private void lessThan(DAGBinaryOp lessThan, boolean when, Label target, InstructionList code) {
+        DAGExpression lhs = lessThan.getLhs(), rhs = lessThan.getRhs();
+        if(isZero(rhs)) {
+            new Expression(this.function, lhs).generate(code);
+            code.add(when ? Opcode.IFLT : Opcode.IFGE, target);
+        } else if(isZero(lhs)) {
+            new Expression(this.function, rhs).generate(code);
+            code.add(when ? Opcode.IFGT : Opcode.IFLE, target);
+        } else {
+            new Expression(this.function, lhs).generate(code);
+            new Expression(this.function, rhs).generate(code);
+            code.add(when ? Opcode.IF_ICMPLT : Opcode.IF_ICMPGE, target);
+        }
+    }
+
+    /**
+     * @return Whether the value of the boolean expression is evaluated without any jump: it is
+     *         loaded from a temporary, or it is neither a comparison nor made of comparisons by !
+     *         and &&, the rhs of which must also have no effects and be unable to throw.
+     */
+    static boolean isStraight(Function function, DAGExpression expression) {
+        if(function.temporaryOf(expression) >= 0)
+            return true;
+        if(expression instanceof DAGNot)
+            return isStraight(function, ((DAGNot) expression).getExpression());
+        if(expression instanceof DAGBinaryOp) {
+            DAGBinaryOp binaryOp = (DAGBinaryOp) expression;
+            if(binaryOp.getOperator() == BinaryOperator.LT)
+                return false;
+            if(binaryOp.getOperator() == BinaryOperator.AND)
+                return DAGNodes.isPure(binaryOp.getRhs()) && isStraight(function, binaryOp.getLhs())
+                    && isStraight(function, binaryOp.getRhs());
+        }
+        return true;
+    }
+
+    private static boolean isZero(DAGExpression expression) {
+        return expression instanceof DAGIntegerConstant && ((DAGIntegerConstant) expression).getValue() == 0;
+    }
+}
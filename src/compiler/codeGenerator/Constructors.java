@@ -1,24 +1,32 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.MethodCode;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.symbols.ClassDescriptor;
 
 /**
  * Constructors
  */
-public class Constructors extends JVMInst {
-
-    private static String DEFAULTINITIALIZER = "\n.method public <init>()V\n\taload_0\n\tinvokenonvirtual ?/<init>()V\n\treturn\n.end method";
+public class Constructors {
 
     private final String superClass;
 
     public Constructors (ClassDescriptor superClass) {
-        this.superClass = superClass == null ? "java/lang/Object" : superClass.getName();
+        this.superClass = superClass == null ? SuperHeader.DEFAULTSUPER : superClass.getName();
     }
 
-    @Override
-    public String toString()
+    /**
+     * @return The default constructor, which calls the one of the super class.
+     */
+    public MethodCode generate()
     {
-        return JVMInst.subst(Constructors.DEFAULTINITIALIZER, superClass);
+        MethodCode constructor = new MethodCode(false, "<init>", "()V");
+        constructor.code.add(Opcode.ALOAD, 0);
+        constructor.code.add(Opcode.INVOKESPECIAL, superClass, "<init>", "()V");
+        constructor.code.add(Opcode.RETURN);
+        constructor.maxStack = 1;
+        constructor.maxLocals = 1;
+        return constructor;
     }
 
 }
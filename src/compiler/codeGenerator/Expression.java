@@ -1,5 +1,6 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
 import compiler.dag.DAGBinaryOp;
 import compiler.dag.DAGBooleanConstant;
 import compiler.dag.DAGBracket;
@@ -24,63 +25,48 @@ public class Expression extends BaseStatement {
         this.expression=expression;
     }
 
+    /**
+     * Loads the value of a shared expression evaluated before, or evaluates the expression, and
+     * keeps its value if it is shared.
+     */
     @Override
-    public String toString()
+    public void generate(InstructionList code)
     {
-        String expressionBody = new String();
-        if(expression instanceof DAGBinaryOp) {
-            BinaryOperation operation = new BinaryOperation(this.function, (DAGBinaryOp) expression);
-            expressionBody = expressionBody.concat(operation.toString());
+        int temporary = this.function.temporaryOf(expression);
+        if(temporary >= 0) {
+            code.add(Load.load(expression.getType()), temporary);
+            return;
         }
-        else if(expression instanceof DAGVariable) {
-            Variable variable = new Variable(this.function, (DAGVariable)expression);
-            expressionBody = expressionBody.concat(variable.toString());
-        }
-        else if(expression instanceof DAGIntegerConstant) {
-            IntegerPush integerLoadBody = new IntegerPush((DAGIntegerConstant)expression);
-            expressionBody = expressionBody.concat(integerLoadBody.toString());
-        }
-        else if(expression instanceof DAGMethodCall) {
-            MethodCall callBody = new MethodCall(this.function, (DAGMethodCall)expression);
-            expressionBody = expressionBody.concat(callBody.toString());
-        }
-        else if(expression instanceof DAGBooleanConstant) {
-            BooleanConstant booleanConstant = new BooleanConstant((DAGBooleanConstant)expression);
-            expressionBody = expressionBody.concat(booleanConstant.toString());
-        }
-        else if(expression instanceof DAGBracket) {
-            BracketAccess bracketAccess = new BracketAccess(this.function, (DAGBracket)expression);
-            expressionBody = expressionBody.concat(bracketAccess.toString());
-        }
-        else if(expression instanceof DAGNewIntArray) {
-            NewIntArray newObject = new NewIntArray(this.function, (DAGNewIntArray)expression);
-            expressionBody = expressionBody.concat(newObject.toString());
-        }
-        else if(expression instanceof DAGNewClass) {
-            NewClass newClass = new NewClass(this.function, (DAGNewClass) expression);
-            expressionBody = expressionBody.concat(newClass.toString());
-        }
-        else if(expression instanceof DAGStaticCall) {
-            StaticCall call = new StaticCall(this.function, (DAGStaticCall) expression);
-            expressionBody = expressionBody.concat(call.toString());
-        }
-        else if(expression instanceof DAGLength) {
-            ArrayLength arrayLength = new ArrayLength(this.function, (DAGLength)expression);
-            expressionBody = expressionBody.concat(arrayLength.toString());
-        }
-        else if(expression instanceof DAGNot) {
-            Not not = new Not(this.function, (DAGNot)expression);
-            expressionBody = expressionBody.concat(not.toString());
-        }
-        return expressionBody;
+        this.evaluate(code);
+        this.function.keep(expression, code);
     }
-}
-
 
-            /*DAGExpression lhs = ((DAGBinaryOp)expression).getLhs();
-            DAGExpression rhs = ((DAGBinaryOp)expression).getRhs();
-            BinaryOperator operator = ((DAGBinaryOp)expression).getOperator();
-            Expression lhsBody = new Expression(this.function, lhs);
-            Expression rhsBody = new Expression(this.function, rhs);
-            Operator operatorBody = new Operator(operator);
-            expressionBody = expressionBody.concat(lhsBody.toString()).concat(rhsBody.toString()).concat(operatorBody.toString());*/
+    /**
+     * Evaluates the expression, whether or not it was evaluated before.
+     */
+    void evaluate(InstructionList code)
+    {
+        if(expression instanceof DAGBinaryOp)
+            new BinaryOperation(this.function, (DAGBinaryOp) expression).generate(code);
+        else if(expression instanceof DAGVariable)
+            new Variable(this.function, (DAGVariable)expression).generate(code);
+        else if(expression instanceof DAGIntegerConstant)
+            new IntegerPush((DAGIntegerConstant)expression).generate(code);
+        else if(expression instanceof DAGMethodCall)
+            new MethodCall(this.function, (DAGMethodCall)expression).generate(code);
+        else if(expression instanceof DAGBooleanConstant)
+            new BooleanConstant((DAGBooleanConstant)expression).generate(code);
+        else if(expression instanceof DAGBracket)
+            new BracketAccess(this.function, (DAGBracket)expression).generate(code);
+        else if(expression instanceof DAGNewIntArray)
+            new NewIntArray(this.function, (DAGNewIntArray)expression).generate(code);
+        else if(expression instanceof DAGNewClass)
+            new NewClass(this.function, (DAGNewClass) expression).generate(code);
+        else if(expression instanceof DAGStaticCall)
+            new StaticCall(this.function, (DAGStaticCall) expression).generate(code);
+        else if(expression instanceof DAGLength)
+            new ArrayLength(this.function, (DAGLength)expression).generate(code);
+        else if(expression instanceof DAGNot)
+            new Not(this.function, (DAGNot)expression).generate(code);
+    }
+}
@@ -23,11 +23,11 @@ public class FieldDefinitionsHeader extends JVMInst {
 
     @Override
     public String toString() {
-        String fieldDefinitionsHeader = new String();
+        StringBuilder fieldDefinitionsHeader = new StringBuilder();
         for(MemberDescriptor memberDescriptor: memberDescriptors) {
             String fieldDef = this.generateFieldDefinition(memberDescriptor);
-            fieldDefinitionsHeader = fieldDefinitionsHeader.concat(fieldDef);
+            fieldDefinitionsHeader.append(fieldDef);
         }
-        return fieldDefinitionsHeader;
+        return fieldDefinitionsHeader.toString();
     }
 }
\ No newline at end of file
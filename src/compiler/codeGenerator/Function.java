@@ -1,9 +1,29 @@
 package compiler.codeGenerator;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.MethodCode;
+import compiler.codeGenerator.ir.Opcode;
+import compiler.codeGenerator.optimizer.BlockLayout;
+import compiler.codeGenerator.optimizer.Peephole;
+import compiler.codeGenerator.optimizer.RegisterAllocator;
+import compiler.dag.DAGAssignment;
+import compiler.dag.DAGBooleanConstant;
+import compiler.dag.DAGExpression;
+import compiler.dag.DAGIntegerConstant;
+import compiler.dag.DAGLocal;
+import compiler.dag.DAGMember;
+import compiler.dag.DAGNode;
+import compiler.dag.DAGNodes;
+import compiler.dag.DAGVariable;
+import compiler.exceptions.CompilationException;
 import compiler.modules.CompilationData;
+import compiler.symbols.FunctionLocals;
 import compiler.symbols.JMMCallableDescriptor;
 import compiler.symbols.JMMFunction;
 import compiler.symbols.JMMMainDescriptor;
@@ -11,21 +31,32 @@ import compiler.symbols.LocalDescriptor;
 import compiler.symbols.ParameterDescriptor;
 import compiler.symbols.VariableDescriptor;
 
-public abstract class Function extends JVMInst {
+public abstract class Function {
     
     protected JMMFunction function;
     private int index;
-    protected HashMap<VariableDescriptor, Integer> variablesIndexes;
     protected final CompilationData data;
     protected MethodBodyGenerator methodBody;
 
+    // The references to each node of the body, and the temporaries holding the values of the
+    // shared expressions evaluated so far, in the order they were kept.
+    private IdentityHashMap<DAGNode, Integer> references;
+    private IdentityHashMap<DAGExpression, Integer> temporaries;
+    private ArrayList<DAGExpression> kept;
+
+    // The temporaries of the expressions to be kept again, by a copy of the code which kept them.
+    private IdentityHashMap<DAGExpression, Integer> copied;
+
     public Function(JMMFunction function, CompilationData data) {
 
         this.index = (function instanceof JMMMainDescriptor) ? 0 : 1;
         this.function = function;
         this.data = data;
-        this.variablesIndexes = new HashMap<>();
+        this.references = DAGNodes.references(data.bodiesMap.get(function));
         this.arrangeIndexes();
+        this.temporaries = new IdentityHashMap<>();
+        this.kept = new ArrayList<>();
+        this.copied = new IdentityHashMap<>();
         this.methodBody = new MethodBodyGenerator(this, function);
     }
 
@@ -35,16 +66,149 @@ public abstract class Function extends JVMInst {
         this.arrangeLocalsIndexes();
     }
 
+    /**
+     * Only the locals the body still reads or assigns get a slot.
+     */
     private void arrangeLocalsIndexes() {
+        HashSet<VariableDescriptor> referenced = new HashSet<>();
+        for(DAGNode node : this.references.keySet()) {
+            if(node instanceof DAGLocal)
+                referenced.add(((DAGLocal) node).getVariable());
+            else if(node instanceof DAGAssignment)
+                referenced.add(((DAGAssignment) node).getVariable().getVariable());
+        }
+
         Collection<LocalDescriptor> locals = this.data.localsMap.get(this.function).getVariables().values();
         for(LocalDescriptor local: locals)
-            this.variablesIndexes.put(local, index++);
+            if(referenced.contains(local))
+                local.setSlot(index++);
     }
 
     private void arrangeParamIndexes() {
         assert(this.function instanceof JMMCallableDescriptor);
         ParameterDescriptor[] params = ((JMMCallableDescriptor)this.function).getParameters();
         for(ParameterDescriptor param: params)
-            this.variablesIndexes.put(param, index++);
+            param.setSlot(index++);
+    }
+
+    /**
+     * @return The slot of a parameter or local variable of the function, or -1 for any other
+     *         variable, which has none.
+     */
+    int slotOf(VariableDescriptor variable) {
+        return variable.getSlot();
+    }
+
+    /**
+     * @return The slot of the temporary holding the value of the expression, or -1 if it has not
+     *         been evaluated yet, or is not kept.
+     */
+    int temporaryOf(DAGExpression expression) {
+        Integer slot = this.temporaries.get(expression);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * @return Whether the expression is referenced from more than one place in the body, and is
+     *         dearer to evaluate again than to load: it is not a constant or a local variable.
+     */
+    boolean isShared(DAGExpression expression) {
+        if(this.references.getOrDefault(expression, 0) < 2)
+            return false;
+        if(expression instanceof DAGIntegerConstant || expression instanceof DAGBooleanConstant)
+            return false;
+        return !(expression instanceof DAGVariable) || expression instanceof DAGMember;
+    }
+
+    /**
+     * @return The number of references to the expression from the body.
+     */
+    int referencesTo(DAGExpression expression) {
+        return this.references.getOrDefault(expression, 0);
     }
-}
\ No newline at end of file
+
+    /**
+     * Keeps the value of a shared expression, just evaluated on top of the stack, in a new
+     * temporary, for the later references to load. The DAG only shares an expression while its
+     * value stays the same, so any reference the evaluation comes before on every path may load it.
+     */
+    void keep(DAGExpression expression, InstructionList code) {
+        if(!this.isShared(expression))
+            return;
+        Integer copy = this.copied.remove(expression);
+        int temporary = copy != null ? copy : this.index++;
+        code.add(Opcode.DUP);
+        code.add(expression.getType().isPrimitive() ? Opcode.ISTORE : Opcode.ASTORE, temporary);
+        this.temporaries.put(expression, temporary);
+        this.kept.add(expression);
+    }
+
+    /**
+     * Opens a scope for code which may not run, such as the body of a branch.
+     *
+     * @return A mark for closing the scope.
+     */
+    int openScope() {
+        return this.kept.size();
+    }
+
+    /**
+     * Closes the scope opened at the given mark: the temporaries kept in it may not have been set,
+     * so the expressions they hold are evaluated again after it.
+     */
+    void closeScope(int mark) {
+        for(int i = this.kept.size() - 1; i >= mark; --i)
+            this.temporaries.remove(this.kept.remove(i));
+    }
+
+    /**
+     * Prepares a copy of the code generated since the mark from openScope, such as the test of a
+     * loop copied at its bottom: the expressions kept since the mark are evaluated again by the
+     * copy, rather than loaded, and kept in the same temporaries, so that the code which may follow
+     * either copy can load them.
+     */
+    void copyFrom(int mark) {
+        for(int i = this.kept.size() - 1; i >= mark; --i) {
+            DAGExpression expression = this.kept.remove(i);
+            this.copied.put(expression, this.temporaries.remove(expression));
+        }
+    }
+
+    /**
+     * @return The method, with its code, its jumps straightened by BlockLayout and its sequences
+     *         shortened by Peephole, and the limits of its frame: the highest depth of the operand
+     *         stack, and the local variables table, with any slot the code adds to it.
+     *         With -r the locals are allocated to as few slots as their lifetimes allow.
+     */
+    public MethodCode generate() {
+        MethodCode method = this.header();
+        this.methodBody.generate(method.code);
+        BlockLayout layout = new BlockLayout(method.code);
+        layout.optimize();
+        Map<String, Integer> hits = new Peephole(method.code).optimize();
+        // A jump resolved by the rules may leave a goto to the next instruction, or an unused label.
+        if(!hits.isEmpty())
+            layout.optimize();
+        if(this.data.stats != null)
+            hits.forEach((rule, count) -> this.data.stats.count("peephole." + rule, count));
+        method.maxStack = method.code.maxStack();
+        int registers = this.data.options.registers;
+        if(registers >= 0) {
+            method.maxLocals = new RegisterAllocator(method).allocate();
+            if(method.maxLocals > registers)
+                throw new CompilationException("Method " + method.name + " needs " + method.maxLocals
+                    + " registers, more than the " + registers + " allowed by -r");
+        }
+        else {
+            // The parameters take their slots whether the code uses them or not.
+            FunctionLocals locals = this.data.localsMap.get(this.function);
+            method.maxLocals = Math.max(locals.localsTableSize() - locals.numLocalVariables(), method.code.maxLocals());
+        }
+        return method;
+    }
+
+    /**
+     * @return The method, without code yet.
+     */
+    protected abstract MethodCode header();
+}
@@ -1,6 +1,8 @@
 package compiler.codeGenerator;
 
-import compiler.codeGenerator.utils.LabelGenerator;
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Label;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGIfElse;
 import compiler.dag.DAGNode;
 
@@ -8,36 +10,35 @@ public class IfElse extends Conditional {
 
     /**
      * 1. Condition
-     * 2: If condition (IFEQ / IFGE)
-     * 2. Else label
-     * 3. if body
+     * 2: If condition false, jump to the else label (see ConditionalJump)
+     * 3. If body
      * 4. Goto label
      * 5. Else label
      * 6. Else body
      * 7. Goto label
      */
-    private static String IFCOND = "?\n? ??\n\tgoto ?\n?:?\n?:";
-
     public IfElse(Function function, DAGIfElse branch) {
-        super(function, branch, IFEQ);
+        super(function, branch);
     }
 
     @Override
-    public String toString() {
-
-        // Condition
-        super.generateCondition();
+    public void generate(InstructionList code) {
 
-        // Else body and label
-        String elseLabel = LabelGenerator.nextLabel();
-        DAGNode elseNode = ((DAGIfElse)this.branch).getElseNode();
-        MethodBodyGenerator elseGenerator = new MethodBodyGenerator(this.function, elseNode);
-
-        // If body and label
-        String gotoLabel = LabelGenerator.nextLabel();
+        Label elseLabel = code.newLabel();
+        Label gotoLabel = code.newLabel();
         DAGNode thenNode = ((DAGIfElse)this.branch).getThenNode();
-        MethodBodyGenerator thenGenerator = new MethodBodyGenerator(this.function, thenNode);
+        DAGNode elseNode = ((DAGIfElse)this.branch).getElseNode();
 
-        return JVMInst.subst(IFCOND, this.condBody, this.cond, elseLabel, thenGenerator.toString(), gotoLabel, elseLabel, elseGenerator.toString(), gotoLabel);
+        // Condition
+        super.generateCondition(code, false, elseLabel);
+        int scope = this.function.openScope();
+        new MethodBodyGenerator(this.function, thenNode).generate(code);
+        this.function.closeScope(scope);
+        code.add(Opcode.GOTO, gotoLabel);
+        code.place(elseLabel);
+        scope = this.function.openScope();
+        new MethodBodyGenerator(this.function, elseNode).generate(code);
+        this.function.closeScope(scope);
+        code.place(gotoLabel);
     }
 }
@@ -11,9 +11,20 @@ public abstract class JVMInst {
      * @return The complete string (with '?' characters replaced by the provided words)
      */
     protected static String subst(String incompleteInst, String... substitutes) {
+        int length = incompleteInst.length();
+        for(String substitute: substitutes)
+            length += substitute.length();
+
+        // One pass over the string: the substitutes may be whole bodies of code.
+        StringBuilder completeInst = new StringBuilder(length);
+        int start = 0;
         for(String substitute: substitutes) {
-            incompleteInst = incompleteInst.replaceFirst("\\?", substitute);
+            int mark = incompleteInst.indexOf('?', start);
+            if(mark < 0)
+                break;
+            completeInst.append(incompleteInst, start, mark).append(substitute);
+            start = mark + 1;
         }
-        return incompleteInst;
+        return completeInst.append(incompleteInst, start, incompleteInst.length()).toString();
     }
 }
\ No newline at end of file
@@ -1,42 +1,37 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGLocal;
 import compiler.symbols.LocalDescriptor;
-import java.util.HashMap;
+import compiler.symbols.TypeDescriptor;
 
 public class Load extends MethodBodyContent {
 
-    public static HashMap<String, String> load = new HashMap<>();
-    static{
-        load.put("int", "\n\tiload ?");
-        load.put("boolean", "\n\tiload ?");
-    }
-    /**
-     * 1: index of the variable
-     */
-    public static String LOADADDRESS = "\n\taload ?";
-
     private LocalDescriptor variableDescriptor;
-    private Integer variableIndex;
+    private int variableIndex;
 
     public Load(Function function, DAGLocal variable)
     {
         super(function);
         this.variableDescriptor = variable.getVariable();
-        this.variableIndex = this.function.variablesIndexes.get(variableDescriptor);
+        this.variableIndex = this.function.slotOf(variableDescriptor);
     }
 
     @Override
-    public String toString()
+    public void generate(InstructionList code)
     {
-        if(variableIndex == null) { // class field
-            return "";
+        if(variableIndex < 0) { // class field
+            return;
         }
-        String variableType = variableDescriptor.getType().toString();
-        String regexLoad = Load.load.get(variableType);
-        if(regexLoad == null)
-            regexLoad = Load.LOADADDRESS;
-        return subst(regexLoad, String.valueOf(variableIndex));
+        code.add(load(variableDescriptor.getType()), variableIndex);
+    }
+
+    /**
+     * @return iload for int and boolean, aload for references.
+     */
+    static Opcode load(TypeDescriptor type)
+    {
+        return type.isPrimitive() ? Opcode.ILOAD : Opcode.ALOAD;
     }
-    
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
 import compiler.symbols.VariableDescriptor;
 import compiler.dag.DAGParameter;
 
@@ -9,27 +10,22 @@ import compiler.dag.DAGParameter;
 public class LoadParameter extends MethodBodyContent {
 
     private VariableDescriptor variableDescriptor;
-    private Integer variableIndex;
+    private int variableIndex;
 
     LoadParameter(Function function, DAGParameter member)
     {
         super(function);
         this.variableDescriptor = member.getVariable();
-        this.variableIndex = this.function.variablesIndexes.get(variableDescriptor);
+        this.variableIndex = this.function.slotOf(variableDescriptor);
     }
 
     @Override
-    public String toString()
+    public void generate(InstructionList code)
     {
-        if(variableIndex == null) { // class field
-            return "";
+        if(variableIndex < 0) { // class field
+            return;
         }
-        String variableType = variableDescriptor.getType().toString();
-        String regexLoad = CodeGeneratorConstants.load.get(variableType);
-        if(regexLoad == null)
-            regexLoad = Load.LOADADDRESS;
-        return subst(regexLoad, String.valueOf(variableIndex));
-
+        code.add(Load.load(variableDescriptor.getType()), variableIndex);
     }
     
-}
\ No newline at end of file
+}
@@ -1,23 +1,32 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.MethodCode;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.modules.CompilationData;
 import compiler.symbols.JMMMainDescriptor;
 
 public class Main extends Function {
 
-    private int localsSize;
+    private static final String NAME = "main";
+    private static final String DESCRIPTOR = "([Ljava/lang/String;)V";
 
     Main(JMMMainDescriptor main, CompilationData data) {
         super(main, data);
-        this.localsSize = 999;
     }
 
     @Override
-    public String toString() {
+    protected MethodCode header() {
+        return new MethodCode(true, NAME, DESCRIPTOR);
+    }
 
-        String methodStack = subst(CodeGeneratorConstants.STACK, String.valueOf(localsSize));
-        String methodLocals = subst(CodeGeneratorConstants.LOCALS, String.valueOf(localsSize));
-        String mainBodyRegex = subst(CodeGeneratorConstants.MAIN, methodStack, methodLocals, methodBody.toString());
-        return mainBodyRegex;
+    /**
+     * @return The main method of a class which declares none, which does nothing.
+     */
+    public static MethodCode empty() {
+        MethodCode method = new MethodCode(true, NAME, DESCRIPTOR);
+        method.maxStack = 0;
+        method.maxLocals = 1;
+        method.code.add(Opcode.RETURN);
+        return method;
     }
-}
\ No newline at end of file
+}
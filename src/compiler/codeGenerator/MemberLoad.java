@@ -1,22 +1,14 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.symbols.MemberDescriptor;
 import compiler.dag.DAGMember;
 
 /**
  * MemberLoad
  */
-public class MemberLoad extends JVMInst {
-    /**
-     * 1: class descriptor
-     */
-    public static String CLASSTYPE = "L?;";
-    /**
-     * 1: class name path
-     * 2: call variable name
-     * 3: type of variable
-     */
-    public static String GETFIELD = "\n\taload 0\n\tgetfield ?/? ?";
+public class MemberLoad {
 
     private MemberDescriptor memberDescriptor;
 
@@ -25,16 +17,16 @@ public class MemberLoad extends JVMInst {
         this.memberDescriptor = member.getVariable();
     }
 
-    @Override
-    public String toString()
+    /**
+     * aload_0, then getfield of the member.
+     */
+    public void generate(InstructionList code)
     {
         String memberName=memberDescriptor.getName();
         String className=memberDescriptor.getParentClass().getClassName();
-        String type=memberDescriptor.getType().getName();
-        String memberType=CodeGeneratorConstants.types.get(type);
-        if(memberType == null)
-            memberType = subst(MemberLoad.CLASSTYPE, type);
-        return JVMInst.subst(MemberLoad.GETFIELD, className,memberName,memberType);
+        String memberType=memberDescriptor.getType().getBytecodeString();
+        code.add(Opcode.ALOAD, 0);
+        code.add(Opcode.GETFIELD, className, memberName, memberType);
     }
     
-}
\ No newline at end of file
+}
@@ -1,30 +1,21 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.MethodCode;
 import compiler.modules.CompilationData;
 import compiler.symbols.JMMCallableDescriptor;
 
 public class Method extends Function {
-    
-    protected int numberLocals;
-    protected int numberTemp;
-    protected int numberParam;
-    protected CompilationData data;
-    private MethodHeader methodHeader;
 
     public Method(JMMCallableDescriptor method, CompilationData data) {
         super(method, data);
-        this.data = data;
-        this.numberLocals = 0;
-        this.numberParam = 0;
-        this.numberTemp = 0;
-        this.methodHeader = new MethodHeader(this, method);
     }
 
     @Override
-    public String toString()
+    protected MethodCode header()
     {
-        String methodStructure = subst(this.methodHeader.toString(), this.methodBody.toString());
-        return methodStructure;
+        JMMCallableDescriptor method = (JMMCallableDescriptor)this.function;
+        String descriptor = method.getSignature().getBytecodeString() + method.getReturnType().getBytecodeString();
+        return new MethodCode(false, method.getName(), descriptor);
     }
 
-}
\ No newline at end of file
+}
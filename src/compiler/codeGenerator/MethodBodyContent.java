@@ -1,6 +1,8 @@
 package compiler.codeGenerator;
 
-public abstract class MethodBodyContent extends JVMInst {
+import compiler.codeGenerator.ir.InstructionList;
+
+public abstract class MethodBodyContent {
 
     /**
      * The function the content belongs to
@@ -10,4 +12,9 @@ public abstract class MethodBodyContent extends JVMInst {
     protected MethodBodyContent(Function function) {
         this.function = function;
     }
-}
\ No newline at end of file
+
+    /**
+     * Appends the instructions of the content to the code of the function.
+     */
+    public abstract void generate(InstructionList code);
+}
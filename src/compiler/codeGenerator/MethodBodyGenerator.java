@@ -2,6 +2,7 @@ package compiler.codeGenerator;
 
 import java.util.ArrayList;
 
+import compiler.codeGenerator.ir.InstructionList;
 import compiler.dag.DAGAssignment;
 import compiler.dag.DAGBracketAssignment;
 import compiler.dag.DAGExpression;
@@ -62,12 +63,9 @@ public class MethodBodyGenerator {
             this.statements.add(baseStatement);
     }
 
-    @Override
-    public String toString()
+    public void generate(InstructionList code)
     {
-        String methodBody = new String();
         for (BaseStatement statement : this.statements)
-            methodBody = methodBody.concat(statement.toString());
-        return methodBody;
+            statement.generate(code);
     }
 }
@@ -1,32 +1,34 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGExpression;
 import compiler.dag.DAGMethodCall;
 import compiler.dag.DAGVariable;
 
 public class MethodCall extends MethodBodyContent {
 
-    private static final String INVOKEVIRTUAL = "\n\taload ??\n\tinvokevirtual ? ";
-    private MethodSignature methodSignature;
-    private Integer callObjectIndex;
-    private ParameterPush parameterPush;
+    protected MethodSignature methodSignature;
+    protected int callObjectIndex = -1;
+    protected ParameterPush parameterPush;
 
     MethodCall(Function function, DAGMethodCall methodCall) {
         super(function);
-        DAGExpression expression = (((DAGMethodCall)methodCall).getObjectExpression());
+        DAGExpression expression = methodCall.getObjectExpression();
         if(expression instanceof DAGVariable)
-            this.callObjectIndex = this.function.variablesIndexes.get(((DAGVariable)expression).getVariable());
-            this.methodSignature = new MethodSignature(methodCall);
+            this.callObjectIndex = this.function.slotOf(((DAGVariable)expression).getVariable());
+        this.methodSignature = new MethodSignature(methodCall);
         this.parameterPush = new ParameterPush(this.function, methodCall.getArguments());
     }
 
+    /**
+     * aload of the object, this if not a variable, the arguments, then invokevirtual.
+     */
     @Override
-    public String toString() {
-        if(this.callObjectIndex == null)
-            this.callObjectIndex = 0;
-        String methodCallBody = new String();
-        String invoke = JVMInst.subst(MethodCall.INVOKEVIRTUAL, Integer.toString(callObjectIndex),parameterPush.toString(), methodSignature.toString());
-        methodCallBody = methodCallBody.concat(invoke);
-        return methodCallBody;
+    public void generate(InstructionList code) {
+        code.add(Opcode.ALOAD, callObjectIndex < 0 ? 0 : callObjectIndex);
+        parameterPush.generate(code);
+        code.add(Opcode.INVOKEVIRTUAL, methodSignature.getMethodClass(), methodSignature.getMethodName(),
+                 methodSignature.getMethodDescriptor());
     }
-}
\ No newline at end of file
+}
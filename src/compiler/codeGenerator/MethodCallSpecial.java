@@ -1,41 +1,26 @@
 package compiler.codeGenerator;
 
-import compiler.dag.DAGExpression;
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGMethodCall;
-import compiler.dag.DAGVariable;
 import compiler.symbols.TypeDescriptor;
 
-public class MethodCallSpecial extends MethodBodyContent {
+/**
+ * A method call as a statement, whose value, if any, is popped.
+ */
+public class MethodCallSpecial extends MethodCall {
 
-    private static final String INVOKEVIRTUAL = "\n\taload ??\n\tinvokevirtual ? ";
-    private static final String INVOKEVIRTUALPOP = "\n\taload ??\n\tinvokevirtual ? \n\tpop";
-    private MethodSignature methodSignature;
-    private Integer callObjectIndex;
-    private ParameterPush parameterPush;
     private TypeDescriptor returnType;
 
     MethodCallSpecial(Function function, DAGMethodCall methodCall) {
-        super(function);
+        super(function, methodCall);
         this.returnType = methodCall.getType();
-        DAGExpression expression = (((DAGMethodCall)methodCall).getObjectExpression());
-        if(expression instanceof DAGVariable)
-            this.callObjectIndex = this.function.variablesIndexes.get(((DAGVariable)expression).getVariable());
-        this.methodSignature = new MethodSignature(methodCall);
-        this.parameterPush = new ParameterPush(this.function, methodCall.getArguments());
     }
 
     @Override
-    public String toString() {
-        if(this.callObjectIndex == null)
-            this.callObjectIndex = 0;
-        String methodCallBody = new String();
-        String invoke = new String();
-        if(this.returnType.toString().equals("void"))
-            invoke = JVMInst.subst(MethodCallSpecial.INVOKEVIRTUAL, Integer.toString(callObjectIndex),parameterPush.toString(), methodSignature.toString());
-        else
-            invoke = JVMInst.subst(MethodCallSpecial.INVOKEVIRTUALPOP, Integer.toString(callObjectIndex),parameterPush.toString(), methodSignature.toString());
-
-        methodCallBody = methodCallBody.concat(invoke);
-        return methodCallBody;
+    public void generate(InstructionList code) {
+        super.generate(code);
+        if(!this.returnType.toString().equals("void"))
+            code.add(Opcode.POP);
     }
-}
\ No newline at end of file
+}
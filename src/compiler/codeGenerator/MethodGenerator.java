@@ -1,37 +1,43 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.MethodCode;
 import compiler.modules.CompilationData;
+import compiler.modules.MethodTasks;
 import compiler.symbols.JMMCallableDescriptor;
 import compiler.symbols.JMMFunction;
 import compiler.symbols.JMMMainDescriptor;
 import compiler.symbols.JMMMethodDescriptor;
 
-import java.util.ArrayList;
+import java.util.function.Consumer;
 
 public class MethodGenerator {
 
-    private ArrayList<Function> methodStructures;
+    private final CompilationData data;
 
     public MethodGenerator(CompilationData data) {
-        this.methodStructures = new ArrayList<Function>();
-        for (JMMFunction method : data.bodiesMap.keySet()) {
-            assert(method instanceof JMMMainDescriptor || method instanceof JMMMethodDescriptor);
-            if(method instanceof JMMMainDescriptor) {
-                Main main = new Main((JMMMainDescriptor) method, data);
-                this.methodStructures.add(main);
-                continue;
-            }
-            Method methodStructure = new Method((JMMCallableDescriptor)method, data);
-            this.methodStructures.add(methodStructure);
-        }
+        this.data = data;
     }
 
-    @Override
-    public String toString() {
-        String methods = "";
-        for (Function m : this.methodStructures)
-            methods += m.toString();
-        return methods;
+    /**
+     * Generates the code of each method, giving it to the output as soon as it is done.
+     */
+    public void generate(Consumer<MethodCode> output) {
+        MethodTasks.run(data, data.bodiesMap.keySet(), method -> generate(method, data), output);
     }
 
-}
\ No newline at end of file
+    /**
+     * Generates the code of a single method. Labels are numbered per method, so that each method's
+     * code is the same whichever thread generates it.
+     */
+    private static MethodCode generate(JMMFunction method, CompilationData data) {
+        assert(method instanceof JMMMainDescriptor || method instanceof JMMMethodDescriptor);
+        Function methodStructure;
+        if(method instanceof JMMMainDescriptor)
+            methodStructure = new Main((JMMMainDescriptor) method, data);
+        else
+            methodStructure = new Method((JMMCallableDescriptor)method, data);
+
+        return methodStructure.generate();
+    }
+
+}
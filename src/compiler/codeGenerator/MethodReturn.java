@@ -1,28 +1,17 @@
 package compiler.codeGenerator;
 
-import compiler.dag.DAGExpression;
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGReturn;
 import compiler.dag.DAGReturnExpression;
 import compiler.dag.DAGVoidReturn;
-import compiler.modules.CodeGenerator;
 import compiler.symbols.TypeDescriptor;
 
-import java.util.HashMap;
-
 /**
  * MethodReturn
  */
 public class MethodReturn extends BaseStatement {
 
-    public static HashMap<String, String> returnTypes;
-    static {
-        returnTypes = new HashMap<>();
-        returnTypes.put("int", "?\n\tireturn");
-        returnTypes.put("boolean", "?\n\tireturn");
-        returnTypes.put("int[]", "?\n\tareturn");
-        returnTypes.put("void", "\n\treturn");
-    }
-
     private TypeDescriptor returnType;
     private Expression expression;
 
@@ -35,16 +24,19 @@ public class MethodReturn extends BaseStatement {
             this.expression = new Expression(function, ((DAGReturnExpression)returnExpression).getExpression());
     }
 
+    /**
+     * ireturn for int and boolean, return for void, and areturn for references.
+     */
     @Override
-    public String toString() {
-        String type = returnType.getName();
-        String returnRegex = MethodReturn.returnTypes.get(type);
-        if (returnRegex == null)
-            returnRegex = "?\n\tareturn";
-        if(this.expression==null)
-            return returnRegex;
+    public void generate(InstructionList code) {
+        if(this.expression != null)
+            this.expression.generate(code);
+        if(returnType.isPrimitive())
+            code.add(Opcode.IRETURN);
+        else if(returnType.getBytecodeString().equals("V"))
+            code.add(Opcode.RETURN);
         else
-            return subst(returnRegex, this.expression.toString());
+            code.add(Opcode.ARETURN);
     }
 
-}
\ No newline at end of file
+}
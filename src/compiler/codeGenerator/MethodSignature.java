@@ -1,79 +1,38 @@
 package compiler.codeGenerator;
 
 import compiler.dag.DAGCall;
-import compiler.symbols.JMMCallableDescriptor;
 
 /**
  * MethodSignature
  */
-public class MethodSignature extends JVMInst {
-
-    /**
-     * 1: name of the class to which the method belongs 2: name of the method 3:
-     * descriptor of the method 4: return type
-     */
-    public static String METHODSIGNATURE = "?/?(?)?";
-    /**
-     * 1: name of the method 2: descriptor of the method 3: return type
-     */
-    public static String METHODSIGNATURENOCLASS = "?(?)?";
+public class MethodSignature {
 
     private String methodClass;
     private String methodName;
     private String methodDescriptor;
-    private String returnType;
-
-    private boolean includeClassName;
-
-    private boolean dagCall;
-
-    MethodSignature(Method method, JMMCallableDescriptor methodDescriptor, boolean includeClassName) {
-        this.dagCall = false;
-        this.includeClassName = includeClassName;
-        this.methodClass = method.data.jmmClass.getClassName();
-        this.methodName = methodDescriptor.getName();
-        MethodDescriptor descript = new MethodDescriptor(methodDescriptor);
-        this.methodDescriptor = descript.toString();
-        this.returnType = CodeGeneratorConstants.getType(methodDescriptor.getReturnType());
-    }
 
     MethodSignature(DAGCall methodCall) {
-        this.dagCall = true;
         this.methodClass = methodCall.getCallClass().toString();
         this.methodName = methodCall.getMethodName();
-        MethodDescriptor descript = new MethodDescriptor(methodCall.getSignature().getParameterTypes());
-        this.methodDescriptor = descript.toString();
-        if (methodCall.getType() == null) {
-            this.returnType = CodeGeneratorConstants.types.get("void");
-        } else
-            this.returnType = CodeGeneratorConstants.getType(methodCall.getType());
-
+        String returnType = methodCall.getType() == null ? "V" : methodCall.getType().getBytecodeString();
+        this.methodDescriptor = methodCall.getSignature().getBytecodeString() + returnType;
     }
 
-    private String generateMethodSignature(String methodClass, String methodName, String methodDescriptor,
-            String returnType) {
-        String methodSignature = subst(MethodSignature.METHODSIGNATURE, methodClass, methodName, methodDescriptor,
-                returnType);
-        methodSignature = methodSignature.replaceAll("\\?", "");
-        return methodSignature;
+    /**
+     * @return The class to which the method belongs.
+     */
+    public String getMethodClass() {
+        return methodClass;
     }
 
-    private String generateMethodSignature(String methodName, String methodDescriptor, String returnType) {
-        String methodSignature = subst(MethodSignature.METHODSIGNATURENOCLASS, methodName, methodDescriptor,
-                returnType);
-        return methodSignature;
+    public String getMethodName() {
+        return methodName;
     }
 
-    @Override
-    public String toString() {
-        if (dagCall) {
-            return this.generateMethodSignature(methodClass, methodName, methodDescriptor, returnType);
-        } else {
-            if (this.includeClassName)
-                return this.generateMethodSignature(this.methodClass, this.methodName, this.methodDescriptor,
-                        this.returnType);
-            else
-                return this.generateMethodSignature(this.methodName, this.methodDescriptor, this.returnType);
-        }
+    /**
+     * @return The descriptor of the method, as in (I[I)Z.
+     */
+    public String getMethodDescriptor() {
+        return methodDescriptor;
     }
-}
\ No newline at end of file
+}
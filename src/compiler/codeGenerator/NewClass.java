@@ -1,5 +1,7 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGNewClass;
 import compiler.symbols.ClassDescriptor;
 
@@ -8,8 +10,6 @@ import compiler.symbols.ClassDescriptor;
  */
 public class NewClass extends MethodBodyContent {
 
-    private static String NEWCLASS = "\n\tnew ?\n\tdup\n\tinvokespecial ?/<init>()V";
-
     private ClassDescriptor className;
 
     public NewClass(Function function, DAGNewClass variable)
@@ -18,10 +18,16 @@ public class NewClass extends MethodBodyContent {
         this.className = variable.getClassDescriptor();
     }
 
+    /**
+     * new, dup, then invokespecial of the default constructor.
+     */
     @Override
-    public String toString()
+    public void generate(InstructionList code)
     {
-        return subst(NewClass.NEWCLASS, this.className.toString(), this.className.toString());
+        String name = this.className.toString();
+        code.add(Opcode.NEW, name);
+        code.add(Opcode.DUP);
+        code.add(Opcode.INVOKESPECIAL, name, "<init>", "()V");
     }
 
 }
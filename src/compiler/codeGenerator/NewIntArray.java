@@ -1,5 +1,7 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGExpression;
 import compiler.dag.DAGNewIntArray;
 
@@ -7,17 +9,16 @@ public class NewIntArray extends NewObject {
 
     /**
      * 1. Expression which represents the number of elements in the array
+     * 2. newarray int
      */
-    private static String NEWINTARRAY = "?\n\tnewarray int";
-
     public NewIntArray(Function function, DAGNewIntArray dagNew) {
         super(function, dagNew);
     }
 
     @Override
-    public String toString() {
+    public void generate(InstructionList code) {
         DAGExpression countExpression = ((DAGNewIntArray)dagNew).getIndexExpression();
-        Expression countExpressionContent = new Expression(this.function, countExpression);
-        return subst(NEWINTARRAY, countExpressionContent.toString());
+        new Expression(this.function, countExpression).generate(code);
+        code.add(Opcode.NEWARRAY);
     }
-}
\ No newline at end of file
+}
@@ -1,31 +1,43 @@
 package compiler.codeGenerator;
 
-import compiler.codeGenerator.utils.LabelGenerator;
-import compiler.dag.DAGExpression;
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Label;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGNot;
 
 public class Not extends MethodBodyContent {
     /**
-     *    $bool...      [\n\t]?                1 bool
-     *    ifne A        \n\tifne ?             2 label A
-     *    iconst_1      \n\ticonst_1
-     *    goto B        \n\tgoto ?             3 label B
-     * A: iconst_0      \n?:\n\ticonst_0       4 label A
-     * B: ...           \n?:                   5 label B
+     * When bool is evaluated without jumps (see ConditionalJump.isStraight):
+     *
+     *    $bool...
+     *    iconst_1
+     *    ixor
+     *
+     * Otherwise:
+     *
+     *    $jump to A if bool...    (see ConditionalJump)
+     *    iconst_1
+     *    goto B
+     * A: iconst_0
+     * B: ...
      */
-    private static String NOT = "?\n\tifne ?\n\ticonst_1\n\tgoto ?\n?:\n\ticonst_0\n?:";
-    private DAGExpression expression;
+    private DAGNot expression;
 
     public Not(Function function, DAGNot dagNot) {
         super(function);
-        this.expression = dagNot.getExpression();
+        this.expression = dagNot;
     }
 
     @Override
-    public String toString() {
-        String exprStr = new Expression(this.function, expression).toString();
-        String A = LabelGenerator.nextLabel();
-        String B = LabelGenerator.nextLabel();
-        return subst(NOT, exprStr, A, B, A, B);
+    public void generate(InstructionList code) {
+        if(ConditionalJump.isStraight(this.function, expression.getExpression())) {
+            new Expression(this.function, expression.getExpression()).generate(code);
+            code.iconst(1);
+            code.add(Opcode.IXOR);
+            return;
+        }
+        Label A = code.newLabel(), B = code.newLabel();
+        new ConditionalJump(this.function, expression).evaluate(code, false, A);
+        BinaryOperation.pushBoolean(code, A, B);
     }
 }
@@ -1,23 +1,14 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.BinaryOperator;
+import compiler.exceptions.InternalCompilerError;
 
-import java.util.HashMap;
 /**
  * Operator
  */
 public class Operator {
-    
-    public static HashMap<String, String> binaryOperators;
-    static{
-        binaryOperators = new HashMap<>();
-        binaryOperators.put("+", "\n\tiadd");
-        binaryOperators.put("-", "\n\tisub");
-        binaryOperators.put("*", "\n\timul");
-        binaryOperators.put("/", "\n\tidiv");
-        binaryOperators.put("<", "\n\tdcmpg");
-        binaryOperators.put("&&", "\n\tiand");
-    }
 
     private BinaryOperator operator;
 
@@ -26,11 +17,27 @@ public class Operator {
         this.operator=operator;
     }
 
-    @Override
-    public String toString()
+    /**
+     * @return The instruction which applies the arithmetic operator to the two operands on the
+     *         stack. The && and < operators have none, and are compiled as jumping code instead.
+     */
+    public static Opcode opcode(BinaryOperator operator)
     {
-        return Operator.binaryOperators.get(operator.toString());
+        switch(operator) {
+            case SUM: return Opcode.IADD;
+            case SUB: return Opcode.ISUB;
+            case MUL: return Opcode.IMUL;
+            case DIV: return Opcode.IDIV;
+            case LT:
+            case AND:
+                break;
+        }
+        throw new InternalCompilerError("No instruction applies " + operator);
+    }
 
+    public void generate(InstructionList code)
+    {
+        code.add(opcode(operator));
     }
     
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
 import compiler.dag.DAGExpression;
 import java.util.ArrayList;
 
@@ -18,13 +19,10 @@ public class ParameterPush extends MethodBodyContent {
     }
 
     @Override
-    public String toString()
+    public void generate(InstructionList code)
     {
-        String parameterPush = new String();
-        for(Expression expression: expressions) {
-            parameterPush = parameterPush.concat(expression.toString());
-        }
-        return parameterPush;
+        for(Expression expression: expressions)
+            expression.generate(code);
     }
     
-}
\ No newline at end of file
+}
@@ -1,8 +1,9 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGExpression;
 import compiler.dag.DAGStaticCall;
-import compiler.symbols.TypeDescriptor;
 
 import java.util.ArrayList;
 
@@ -11,13 +12,10 @@ import java.util.ArrayList;
  */
 public class StaticCall extends MethodBodyContent {
 
-    private static String STATICCALL = "\tinvokestatic ?/?(?)?";
-
     private ArrayList<Expression> exps;
     private String className;
     private String methodName;
-    private TypeDescriptor returnType;
-    private String parametersTypes;
+    private String methodDescriptor;
 
     StaticCall(Function function, DAGStaticCall call)
     {
@@ -25,25 +23,22 @@ public class StaticCall extends MethodBodyContent {
         this.exps= new ArrayList<Expression>();
         this.className= call.getCallClass().toString();
         this.methodName = call.getMethodName();
-        this.returnType = call.getCallable().getReturnType();
-        this.parametersTypes="";
+        StringBuilder descriptor = new StringBuilder("(");
         for(DAGExpression ex : call.getArguments())
         {
             this.exps.add(new Expression(function, ex));
-            this.parametersTypes += CodeGeneratorConstants.getType(ex.getType());
+            descriptor.append(ex.getType().getBytecodeString());
         }
+        descriptor.append(')').append(call.getCallable().getReturnType().getBytecodeString());
+        this.methodDescriptor = descriptor.toString();
     }
 
     @Override
-    public String toString()
+    public void generate(InstructionList code)
     {
-        String devolver= new String();
         for(Expression exp:this.exps)
-        {
-            devolver += exp.toString();
-        }
-        String invoke = subst(StaticCall.STATICCALL, this.className,this.methodName,this.parametersTypes,CodeGeneratorConstants.getType(this.returnType));
-        return devolver + "\n" + invoke;
+            exp.generate(code);
+        code.add(Opcode.INVOKESTATIC, this.className, this.methodName, this.methodDescriptor);
     }
     
-}
\ No newline at end of file
+}
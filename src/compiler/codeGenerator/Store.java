@@ -1,35 +1,33 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGVariable;
 import compiler.symbols.VariableDescriptor;
 
 public class Store extends MethodBodyContent {
     
-    /**
-     * 1: index of the variable
-     */
-    public static String STOREADDRESS = "\n\tastore ?";
     private VariableDescriptor variableDescriptor;
-    private Integer variableIndex;
+    private int variableIndex;
 
     Store(Function function, DAGVariable variable)
     {
         super(function);
         this.variableDescriptor = variable.getVariable();
-        this.variableIndex = this.function.variablesIndexes.get(this.variableDescriptor);
+        this.variableIndex = this.function.slotOf(this.variableDescriptor);
     }
 
+    /**
+     * istore for int and boolean, astore for references.
+     */
     @Override
-    public String toString()
+    public void generate(InstructionList code)
     {
-        if(this.variableIndex == null) { // class field
-            return "";
+        if(this.variableIndex < 0) { // class field
+            return;
         }
-        String variableType = variableDescriptor.getType().toString();
-        String instruction = CodeGeneratorConstants.store.get(variableType);
-        if(instruction == null)
-            instruction = Store.STOREADDRESS;
-        return subst(instruction, String.valueOf(variableIndex));
+        Opcode store = variableDescriptor.getType().isPrimitive() ? Opcode.ISTORE : Opcode.ASTORE;
+        code.add(store, variableIndex);
     }
     
-}
\ No newline at end of file
+}
@@ -1,20 +1,11 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
 import compiler.dag.DAGMember;
 import compiler.symbols.MemberDescriptor;
 
-public class StoreMember extends JVMInst {
-
-    /**
-     * 1: class descriptor
-     */
-    public static String CLASSTYPE = "L?;";
-    /**
-     * 1: class name path
-     * 2: call variable name
-     * 3: type of variable
-     */
-    public static String PUTFIELD = "\n\taload_0\n\tswap\n\tputfield ?/? ?";
+public class StoreMember {
 
     private MemberDescriptor memberDescriptor;
 
@@ -23,16 +14,17 @@ public class StoreMember extends JVMInst {
         this.memberDescriptor = member.getVariable();
     }
 
-    @Override
-    public String toString()
+    /**
+     * aload_0 and swap, for the value to be on top, then putfield of the member.
+     */
+    public void generate(InstructionList code)
     {
         String memberName=memberDescriptor.getName();
         String className=memberDescriptor.getParentClass().getClassName();
-        String type=memberDescriptor.getType().getName();
-        String memberType=CodeGeneratorConstants.types.get(type);
-        if(memberType==null)
-            memberType=subst(StoreMember.CLASSTYPE, type);
-        return subst(StoreMember.PUTFIELD, className,memberName,memberType);
+        String memberType=memberDescriptor.getType().getBytecodeString();
+        code.add(Opcode.ALOAD, 0);
+        code.add(Opcode.SWAP);
+        code.add(Opcode.PUTFIELD, className, memberName, memberType);
     }
 
 
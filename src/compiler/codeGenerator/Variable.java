@@ -1,5 +1,6 @@
 package compiler.codeGenerator;
 
+import compiler.codeGenerator.ir.InstructionList;
 import compiler.dag.DAGLocal;
 import compiler.dag.DAGMember;
 import compiler.dag.DAGParameter;
@@ -15,24 +16,12 @@ public class Variable extends MethodBodyContent {
     }
 
     @Override
-    public String toString() {
-
-        String variableLoad = new String();
-
+    public void generate(InstructionList code) {
         if(variable instanceof DAGMember)
-        {
-            MemberLoad member = new MemberLoad((DAGMember)variable);
-            variableLoad = member.toString();
-        }
-        else if(variable instanceof DAGLocal) {
-            Load loadBody = new Load(this.function, (DAGLocal)variable);
-            variableLoad = loadBody.toString();
-        }
+            new MemberLoad((DAGMember)variable).generate(code);
+        else if(variable instanceof DAGLocal)
+            new Load(this.function, (DAGLocal)variable).generate(code);
         else if(variable instanceof DAGParameter)
-        {
-            LoadParameter member = new LoadParameter(this.function, (DAGParameter)variable);
-            variableLoad = member.toString();
-        }
-        return variableLoad;
+            new LoadParameter(this.function, (DAGParameter)variable).generate(code);
     }
-}
\ No newline at end of file
+}
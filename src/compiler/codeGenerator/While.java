@@ -1,40 +1,49 @@
 package compiler.codeGenerator;
 
-import compiler.codeGenerator.utils.LabelGenerator;
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Label;
 import compiler.dag.DAGNode;
 import compiler.dag.DAGWhile;
 
 public class While extends Conditional {
 
     /**
-     * 1. Condition label
-     * 2. Condition body
-     * 3. Condition (either IFEQ oR IFGE)
-     * 4. Continue label
-     * 5. While body
-     * 6. Condition label
-     * 7. Continue label
+     * The loop is inverted, into a do-while guarded by its condition, so that each iteration only
+     * runs the test at the bottom, which jumps back to the body, rather than a test at the top and a
+     * goto back to it:
+     *
+     * 1. If condition false, jump to the exit label (see ConditionalJump)
+     * 2. Body label
+     * 3. While body
+     * 4. If condition true, jump to the body label
+     * 5. Exit label
+     *
+     * The test at the bottom evaluates again what the one at the top keeps, into the same
+     * temporaries, for the body and the code after the loop to load whichever test ran last.
      */
-    private static String WHILE = "\n?:?\n? ??\n\tgoto ?\n?:\n";
-
     public While(Function function, DAGWhile branch) {
-        super(function, branch, IFEQ);
+        super(function, branch);
     }
 
     @Override
-    public String toString() {
+    public void generate(InstructionList code) {
+        Label bodyLabel = code.newLabel();
+        Label exitLabel = code.newLabel();
 
         // Condition
-        String conditionLabel = LabelGenerator.nextLabel();
-        super.generateCondition();
+        int mark = function.openScope();
+        super.generateCondition(code, false, exitLabel);
 
         // While body
+        code.place(bodyLabel);
         DAGNode dagWhile = ((DAGWhile)branch).getBody();
-        MethodBodyGenerator whileBody = new MethodBodyGenerator(function, dagWhile);
-
-        // After while loop
-        String continueLabel = LabelGenerator.nextLabel();
-
-        return JVMInst.subst(WHILE, conditionLabel, this.condBody, this.cond, continueLabel, whileBody.toString(), conditionLabel, continueLabel);
+        int scope = function.openScope();
+        new MethodBodyGenerator(function, dagWhile).generate(code);
+        function.closeScope(scope);
+
+        // Condition again
+        function.copyFrom(mark);
+        super.generateCondition(code, true, bodyLabel);
+        code.place(exitLabel);
     }
 }
@@ -0,0 +1,126 @@
+package compiler.codeGenerator.classfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * A class file, built member by member and written out in the class file format.
+ *
+ * The version is 49 (Java 5), the last one which does not require StackMapTable attributes, so
+ * the code needs no frames: the verifier infers the types itself.
+ */
+public final class ClassFile {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int MAJOR_VERSION = 49;
+    private static final int MINOR_VERSION = 0;
+
+    private static final class Member {
+        final int access;
+        final int name;
+        final int descriptor;
+        final Code code;
+
+        Member(int access, int name, int descriptor, Code code) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.code = code;
+        }
+    }
+
+    private final ConstantPool pool = new ConstantPool();
+    private final int access;
+    private final int thisClass;
+    private final int superClass;
+    private final ArrayList<Member> fields = new ArrayList<>();
+    private final ArrayList<Member> methods = new ArrayList<>();
+    private int sourceFile = 0;
+
+    /**
+     * @param access    The access flags of the class; ACC_SUPER is always set.
+     * @param name      The internal name of the class, as in java/lang/Object.
+     * @param superName The internal name of its super class.
+     */
+    public ClassFile(int access, String name, String superName) {
+        this.access = access | Opcodes.ACC_SUPER;
+        this.thisClass = pool.classRef(name);
+        this.superClass = pool.classRef(superName);
+    }
+
+    public void addField(int access, String name, String descriptor) {
+        fields.add(new Member(access, pool.utf8(name), pool.utf8(descriptor), null));
+    }
+
+    /**
+     * @param maxStack  The highest depth of the operand stack of the method.
+     * @param maxLocals The size of its local variables table, the parameters included.
+     * @return The code of the new method, to be filled in.
+     */
+    public Code addMethod(int access, String name, String descriptor, int maxStack, int maxLocals) {
+        Code code = new Code(pool, maxStack, maxLocals);
+        methods.add(new Member(access, pool.utf8(name), pool.utf8(descriptor), code));
+        return code;
+    }
+
+    /**
+     * Name the source file of the class, as shown in stack traces.
+     */
+    public void setSourceFile(String name) {
+        sourceFile = pool.utf8(name);
+    }
+
+    public byte[] toByteArray() {
+        try {
+            // The body is written first, for the names of its attributes to join the pool.
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(body);
+            int codeName = pool.utf8("Code");
+            int sourceFileName = sourceFile != 0 ? pool.utf8("SourceFile") : 0;
+
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);  // interfaces_count
+
+            out.writeShort(fields.size());
+            for (Member field : fields) {
+                out.writeShort(field.access);
+                out.writeShort(field.name);
+                out.writeShort(field.descriptor);
+                out.writeShort(0);
+            }
+
+            out.writeShort(methods.size());
+            for (Member method : methods) {
+                out.writeShort(method.access);
+                out.writeShort(method.name);
+                out.writeShort(method.descriptor);
+                out.writeShort(1);
+                method.code.writeTo(out, codeName);
+            }
+
+            if (sourceFile != 0) {
+                out.writeShort(1);
+                out.writeShort(sourceFileName);
+                out.writeInt(2);
+                out.writeShort(sourceFile);
+            } else {
+                out.writeShort(0);
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.size() + 1024);
+            DataOutputStream file = new DataOutputStream(bytes);
+            file.writeInt(MAGIC);
+            file.writeShort(MINOR_VERSION);
+            file.writeShort(MAJOR_VERSION);
+            pool.writeTo(file);
+            body.writeTo(file);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package compiler.codeGenerator.classfile;
+
+import static compiler.codeGenerator.classfile.Opcodes.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import compiler.exceptions.CompilationException;
+import compiler.exceptions.InternalCompilerError;
+
+/**
+ * The code of one method, assembled from instructions and labels.
+ *
+ * Branches refer to labels, which are resolved to offsets once all the code is in. Every branch
+ * starts short; a branch whose target ends up farther than a short offset reaches becomes a goto_w,
+ * or, if conditional, the opposite condition jumping over a goto_w. Widening a branch moves the code
+ * after it, so the layout is repeated until no more branches need widening.
+ *
+ * The limits of the frame, max_stack and max_locals, are those the generator computed for the
+ * method, and are written as given.
+ */
+public final class Code {
+
+    /**
+     * A position in the code, to be placed once and branched to any number of times.
+     */
+    public static final class Label {
+        private int index = -1;
+    }
+
+    private static final class Instruction {
+        final int opcode;
+        final int operand;
+        final int extra;
+        final Label target;
+        boolean far;
+        int offset;
+
+        Instruction(int opcode, int operand, int extra, Label target) {
+            this.opcode = opcode;
+            this.operand = operand;
+            this.extra = extra;
+            this.target = target;
+        }
+    }
+
+    private final ConstantPool pool;
+    private final ArrayList<Instruction> instructions = new ArrayList<>();
+    private final int maxStack;
+    private final int maxLocals;
+
+    Code(ConstantPool pool, int maxStack, int maxLocals) {
+        this.pool = pool;
+        this.maxStack = maxStack;
+        this.maxLocals = maxLocals;
+    }
+
+    private Code add(int opcode, int operand, int extra, Label target) {
+        instructions.add(new Instruction(opcode, operand, extra, target));
+        return this;
+    }
+
+    /**
+     * An instruction without operands.
+     */
+    public Code op(int opcode) {
+        return add(opcode, 0, 0, null);
+    }
+
+    /**
+     * A load or store of a local variable, given as iload, aload, istore or astore.
+     */
+    public Code local(int opcode, int index) {
+        assert opcode == ILOAD || opcode == ALOAD || opcode == ISTORE || opcode == ASTORE;
+        return add(opcode, index, 0, null);
+    }
+
+    public Code iinc(int index, int increment) {
+        return add(IINC, index, increment, null);
+    }
+
+    /**
+     * Push an int, with the shortest instruction that does it.
+     */
+    public Code push(int value) {
+        if (value >= -1 && value <= 5) return op(ICONST_0 + value);
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) return add(BIPUSH, value, 0, null);
+        if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) return add(SIPUSH, value, 0, null);
+        int index = pool.integer(value);
+        return add(index <= 0xFF ? LDC : LDC_W, index, 0, null);
+    }
+
+    public Code pushLong(long value) {
+        return add(LDC2_W, pool.longConstant(value), 0, null);
+    }
+
+    public Code pushString(String value) {
+        int index = pool.string(value);
+        return add(index <= 0xFF ? LDC : LDC_W, index, 0, null);
+    }
+
+    /**
+     * new, anewarray: an instruction whose operand is a class.
+     */
+    public Code type(int opcode, String internalName) {
+        assert opcode == NEW || opcode == ANEWARRAY;
+        return add(opcode, pool.classRef(internalName), 0, null);
+    }
+
+    public Code newarray(int arrayType) {
+        return add(NEWARRAY, arrayType, 0, null);
+    }
+
+    public Code field(int opcode, String owner, String name, String descriptor) {
+        assert opcode == GETFIELD || opcode == PUTFIELD || opcode == GETSTATIC || opcode == PUTSTATIC;
+        return add(opcode, pool.fieldRef(owner, name, descriptor), 0, null);
+    }
+
+    public Code invoke(int opcode, String owner, String name, String descriptor) {
+        assert opcode == INVOKEVIRTUAL || opcode == INVOKESPECIAL || opcode == INVOKESTATIC;
+        return add(opcode, pool.methodRef(owner, name, descriptor), 0, null);
+    }
+
+    /**
+     * A goto or a conditional branch to the label.
+     */
+    public Code jump(int opcode, Label label) {
+        assert opcode == GOTO || isConditional(opcode);
+        return add(opcode, 0, 0, label);
+    }
+
+    /**
+     * Place the label before the next instruction.
+     */
+    public Code place(Label label) {
+        if (label.index >= 0) throw new InternalCompilerError();
+        label.index = instructions.size();
+        return this;
+    }
+
+    private static int size(Instruction instruction) {
+        switch (instruction.opcode) {
+        case ILOAD: case ALOAD: case ISTORE: case ASTORE:
+            if (instruction.operand <= 3) return 1;
+            return instruction.operand <= 0xFF ? 2 : 4;
+        case IINC:
+            boolean narrow = instruction.operand <= 0xFF && instruction.extra >= Byte.MIN_VALUE
+                && instruction.extra <= Byte.MAX_VALUE;
+            return narrow ? 3 : 6;
+        case BIPUSH: case LDC: case NEWARRAY:
+            return 2;
+        case SIPUSH: case LDC_W: case LDC2_W: case NEW: case ANEWARRAY:
+        case GETFIELD: case PUTFIELD: case GETSTATIC: case PUTSTATIC:
+        case INVOKEVIRTUAL: case INVOKESPECIAL: case INVOKESTATIC:
+            return 3;
+        case GOTO:
+            return instruction.far ? 5 : 3;
+        default:
+            if (isConditional(instruction.opcode)) return instruction.far ? 8 : 3;
+            return 1;
+        }
+    }
+
+    private int offsetOf(Label label) {
+        if (label.index < 0) throw new InternalCompilerError();
+        return label.index < instructions.size() ? instructions.get(label.index).offset : length();
+    }
+
+    private int length() {
+        if (instructions.isEmpty()) return 0;
+        Instruction last = instructions.get(instructions.size() - 1);
+        return last.offset + size(last);
+    }
+
+    /**
+     * Lay out the instructions, widening branches until they all reach their targets.
+     */
+    private void layout() {
+        boolean widened = true;
+        while (widened) {
+            int offset = 0;
+            for (Instruction instruction : instructions) {
+                instruction.offset = offset;
+                offset += size(instruction);
+            }
+
+            widened = false;
+            for (Instruction instruction : instructions) {
+                if (instruction.target == null || instruction.far) continue;
+                int jump = offsetOf(instruction.target) - instruction.offset;
+                if (jump < Short.MIN_VALUE || jump > Short.MAX_VALUE) {
+                    instruction.far = true;
+                    widened = true;
+                }
+            }
+        }
+
+        if (length() > 0xFFFF) throw new CompilationException("Method code too large");
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        for (Instruction instruction : instructions) {
+            int opcode = instruction.opcode, operand = instruction.operand;
+            switch (opcode) {
+            case ILOAD: case ALOAD: case ISTORE: case ASTORE:
+                if (operand <= 3) {
+                    int base = opcode == ILOAD ? ILOAD_0 : opcode == ALOAD ? ALOAD_0
+                        : opcode == ISTORE ? ISTORE_0 : ASTORE_0;
+                    out.writeByte(base + operand);
+                } else if (operand <= 0xFF) {
+                    out.writeByte(opcode);
+                    out.writeByte(operand);
+                } else {
+                    out.writeByte(WIDE);
+                    out.writeByte(opcode);
+                    out.writeShort(operand);
+                }
+                break;
+            case IINC:
+                if (size(instruction) == 3) {
+                    out.writeByte(IINC);
+                    out.writeByte(operand);
+                    out.writeByte(instruction.extra);
+                } else {
+                    out.writeByte(WIDE);
+                    out.writeByte(IINC);
+                    out.writeShort(operand);
+                    out.writeShort(instruction.extra);
+                }
+                break;
+            case BIPUSH: case LDC: case NEWARRAY:
+                out.writeByte(opcode);
+                out.writeByte(operand);
+                break;
+            case SIPUSH: case LDC_W: case LDC2_W: case NEW: case ANEWARRAY:
+            case GETFIELD: case PUTFIELD: case GETSTATIC: case PUTSTATIC:
+            case INVOKEVIRTUAL: case INVOKESPECIAL: case INVOKESTATIC:
+                out.writeByte(opcode);
+                out.writeShort(operand);
+                break;
+            default:
+                if (instruction.target != null) {
+                    writeJump(out, instruction);
+                } else {
+                    out.writeByte(opcode);
+                }
+            }
+        }
+    }
+
+    private void writeJump(DataOutputStream out, Instruction instruction) throws IOException {
+        int jump = offsetOf(instruction.target) - instruction.offset;
+        if (!instruction.far) {
+            out.writeByte(instruction.opcode);
+            out.writeShort(jump);
+        } else if (instruction.opcode == GOTO) {
+            out.writeByte(GOTO_W);
+            out.writeInt(jump);
+        } else {
+            // if not <condition> skip the goto_w; goto_w target
+            out.writeByte(negate(instruction.opcode));
+            out.writeShort(8);
+            out.writeByte(GOTO_W);
+            out.writeInt(jump - 3);
+        }
+    }
+
+    /**
+     * Writes the Code attribute, without its name, which is given by the class file.
+     */
+    void writeTo(DataOutputStream stream, int nameIndex) throws IOException {
+        layout();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(length());
+        write(new DataOutputStream(bytes));
+
+        stream.writeShort(nameIndex);
+        stream.writeInt(2 + 2 + 4 + bytes.size() + 2 + 2);
+        stream.writeShort(maxStack);
+        stream.writeShort(maxLocals);
+        stream.writeInt(bytes.size());
+        bytes.writeTo(stream);
+        stream.writeShort(0);  // exception_table_length
+        stream.writeShort(0);  // attributes_count
+    }
+}
@@ -0,0 +1,148 @@
+package compiler.codeGenerator.classfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+
+import compiler.exceptions.CompilationException;
+
+/**
+ * The constant pool of a class file. Each constant is added once, the first time it is asked for,
+ * and is referred to by its index from then on.
+ */
+final class ConstantPool {
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int LONG = 5;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELDREF = 9;
+    private static final int METHODREF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final HashMap<String, Integer> indexes = new HashMap<>();
+    private int count = 1;
+
+    int utf8(String value) {
+        Integer index = indexes.get("U" + value);
+        if (index != null) return index;
+
+        try {
+            out.writeByte(UTF8);
+            out.writeUTF(value);
+        } catch (IOException e) {
+            throw new CompilationException("Constant too long: " + value, e);
+        }
+        return add("U" + value);
+    }
+
+    int integer(int value) {
+        Integer index = indexes.get("I" + value);
+        if (index != null) return index;
+
+        write(INTEGER, value >>> 16, value & 0xFFFF);
+        return add("I" + value);
+    }
+
+    /**
+     * A long takes two entries of the pool, the second of which is unusable.
+     */
+    int longConstant(long value) {
+        Integer index = indexes.get("J" + value);
+        if (index != null) return index;
+        if (count + 1 >= 0xFFFF) throw new CompilationException("Too many constants in class");
+
+        try {
+            out.writeByte(LONG);
+            out.writeLong(value);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        index = add("J" + value);
+        count++;
+        return index;
+    }
+
+    int classRef(String internalName) {
+        Integer index = indexes.get("C" + internalName);
+        if (index != null) return index;
+
+        int name = utf8(internalName);
+        write(CLASS, name);
+        return add("C" + internalName);
+    }
+
+    int string(String value) {
+        Integer index = indexes.get("S" + value);
+        if (index != null) return index;
+
+        int utf8 = utf8(value);
+        write(STRING, utf8);
+        return add("S" + value);
+    }
+
+    int nameAndType(String name, String descriptor) {
+        String key = "N" + name + ' ' + descriptor;
+        Integer index = indexes.get(key);
+        if (index != null) return index;
+
+        int nameIndex = utf8(name), descriptorIndex = utf8(descriptor);
+        write(NAME_AND_TYPE, nameIndex, descriptorIndex);
+        return add(key);
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(FIELDREF, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(METHODREF, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        String key = (tag == FIELDREF ? "F" : "M") + owner + '.' + name + ' ' + descriptor;
+        Integer index = indexes.get(key);
+        if (index != null) return index;
+
+        int classIndex = classRef(owner), nameAndType = nameAndType(name, descriptor);
+        write(tag, classIndex, nameAndType);
+        return add(key);
+    }
+
+    private void write(int tag, int first, int second) {
+        try {
+            out.writeByte(tag);
+            out.writeShort(first);
+            out.writeShort(second);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void write(int tag, int index) {
+        try {
+            out.writeByte(tag);
+            out.writeShort(index);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private int add(String key) {
+        if (count >= 0xFFFF) throw new CompilationException("Too many constants in class");
+        indexes.put(key, count);
+        return count++;
+    }
+
+    /**
+     * Writes the constant_pool_count and the constants.
+     */
+    void writeTo(DataOutputStream stream) throws IOException {
+        stream.writeShort(count);
+        bytes.writeTo(stream);
+    }
+}
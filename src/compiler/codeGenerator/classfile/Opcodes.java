@@ -0,0 +1,191 @@
+package compiler.codeGenerator.classfile;
+
+/**
+ * Opcodes and flags of the class file format used by the generated code.
+ */
+public final class Opcodes {
+
+    private Opcodes() {}
+
+    // Access flags
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_PRIVATE = 0x0002;
+    public static final int ACC_PROTECTED = 0x0004;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_FINAL = 0x0010;
+    public static final int ACC_SUPER = 0x0020;
+
+    // Array types of newarray
+    public static final int T_BOOLEAN = 4;
+    public static final int T_INT = 10;
+
+    public static final int NOP = 0;
+    public static final int ACONST_NULL = 1;
+    public static final int ICONST_M1 = 2;
+    public static final int ICONST_0 = 3;
+    public static final int ICONST_5 = 8;
+    public static final int BIPUSH = 16;
+    public static final int SIPUSH = 17;
+    public static final int LDC = 18;
+    public static final int LDC_W = 19;
+    public static final int LDC2_W = 20;
+    public static final int ILOAD = 21;
+    public static final int ALOAD = 25;
+    public static final int ILOAD_0 = 26;
+    public static final int ALOAD_0 = 42;
+    public static final int IALOAD = 46;
+    public static final int AALOAD = 50;
+    public static final int ISTORE = 54;
+    public static final int ASTORE = 58;
+    public static final int ISTORE_0 = 59;
+    public static final int ASTORE_0 = 75;
+    public static final int IASTORE = 79;
+    public static final int AASTORE = 83;
+    public static final int POP = 87;
+    public static final int POP2 = 88;
+    public static final int DUP = 89;
+    public static final int DUP_X1 = 90;
+    public static final int DUP_X2 = 91;
+    public static final int DUP2 = 92;
+    public static final int SWAP = 95;
+    public static final int IADD = 96;
+    public static final int ISUB = 100;
+    public static final int IMUL = 104;
+    public static final int LMUL = 105;
+    public static final int IDIV = 108;
+    public static final int IREM = 112;
+    public static final int INEG = 116;
+    public static final int ISHL = 120;
+    public static final int ISHR = 122;
+    public static final int LSHR = 123;
+    public static final int IUSHR = 124;
+    public static final int IAND = 126;
+    public static final int IOR = 128;
+    public static final int IXOR = 130;
+    public static final int IINC = 132;
+    public static final int I2L = 133;
+    public static final int L2I = 136;
+    public static final int IFEQ = 153;
+    public static final int IFNE = 154;
+    public static final int IFLT = 155;
+    public static final int IFGE = 156;
+    public static final int IFGT = 157;
+    public static final int IFLE = 158;
+    public static final int IF_ICMPEQ = 159;
+    public static final int IF_ICMPNE = 160;
+    public static final int IF_ICMPLT = 161;
+    public static final int IF_ICMPGE = 162;
+    public static final int IF_ICMPGT = 163;
+    public static final int IF_ICMPLE = 164;
+    public static final int IF_ACMPEQ = 165;
+    public static final int IF_ACMPNE = 166;
+    public static final int GOTO = 167;
+    public static final int IRETURN = 172;
+    public static final int ARETURN = 176;
+    public static final int RETURN = 177;
+    public static final int GETSTATIC = 178;
+    public static final int PUTSTATIC = 179;
+    public static final int GETFIELD = 180;
+    public static final int PUTFIELD = 181;
+    public static final int INVOKEVIRTUAL = 182;
+    public static final int INVOKESPECIAL = 183;
+    public static final int INVOKESTATIC = 184;
+    public static final int NEW = 187;
+    public static final int NEWARRAY = 188;
+    public static final int ANEWARRAY = 189;
+    public static final int ARRAYLENGTH = 190;
+    public static final int ATHROW = 191;
+    public static final int WIDE = 196;
+    public static final int IFNULL = 198;
+    public static final int IFNONNULL = 199;
+    public static final int GOTO_W = 200;
+
+    /**
+     * @return true for the conditional branches, which all take a two byte offset.
+     */
+    public static boolean isConditional(int opcode) {
+        return (opcode >= IFEQ && opcode <= IF_ACMPNE) || opcode == IFNULL || opcode == IFNONNULL;
+    }
+
+    /**
+     * @return The conditional branch taken exactly when the given one is not.
+     */
+    public static int negate(int opcode) {
+        assert isConditional(opcode);
+        if (opcode == IFNULL) return IFNONNULL;
+        if (opcode == IFNONNULL) return IFNULL;
+        // ifeq/ifne, iflt/ifge, ifgt/ifle, ... come in pairs.
+        return ((opcode - IFEQ) ^ 1) + IFEQ;
+    }
+
+    /**
+     * @return The change in the stack depth by an instruction without a symbolic operand, or by a
+     *         branch. Invocations and field accesses depend on their descriptors instead.
+     */
+    public static int stackDelta(int opcode) {
+        switch (opcode) {
+        case NOP: case SWAP: case INEG: case IINC: case GOTO: case GOTO_W: case RETURN:
+        case NEWARRAY: case ANEWARRAY: case ARRAYLENGTH:
+            return 0;
+        case ACONST_NULL: case BIPUSH: case SIPUSH: case LDC: case LDC_W: case ILOAD: case ALOAD:
+        case DUP: case DUP_X1: case DUP_X2: case NEW: case I2L:
+            return 1;
+        case DUP2: case LDC2_W:
+            return 2;
+        case IALOAD: case AALOAD: case ISTORE: case ASTORE: case POP:
+        case IADD: case ISUB: case IMUL: case IDIV: case IREM: case ISHL: case ISHR: case IUSHR:
+        case IAND: case IOR: case IXOR: case LSHR: case L2I:
+        case IFEQ: case IFNE: case IFLT: case IFGE: case IFGT: case IFLE: case IFNULL: case IFNONNULL:
+        case IRETURN: case ARETURN: case ATHROW:
+            return -1;
+        case POP2: case LMUL: case IF_ICMPEQ: case IF_ICMPNE: case IF_ICMPLT: case IF_ICMPGE: case IF_ICMPGT:
+        case IF_ICMPLE: case IF_ACMPEQ: case IF_ACMPNE:
+            return -2;
+        case IASTORE: case AASTORE:
+            return -3;
+        }
+        if (opcode >= ICONST_M1 && opcode <= ICONST_5) return 1;
+        if (opcode >= ILOAD_0 && opcode <= ILOAD_0 + 3) return 1;
+        if (opcode >= ALOAD_0 && opcode <= ALOAD_0 + 3) return 1;
+        if (opcode >= ISTORE_0 && opcode <= ISTORE_0 + 3) return -1;
+        if (opcode >= ASTORE_0 && opcode <= ASTORE_0 + 3) return -1;
+        throw new IllegalArgumentException("Unsupported opcode " + opcode);
+    }
+
+    /**
+     * @return The number of stack slots taken by a value of the given field descriptor.
+     */
+    public static int size(String descriptor) {
+        switch (descriptor.charAt(0)) {
+        case 'V':
+            return 0;
+        case 'J': case 'D':
+            return 2;
+        default:
+            return 1;
+        }
+    }
+
+    /**
+     * @return The number of stack slots taken by the arguments of the given method descriptor.
+     */
+    public static int argumentsSize(String descriptor) {
+        int size = 0;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            char c = descriptor.charAt(i);
+            size += (c == 'J' || c == 'D') ? 2 : 1;
+            while (descriptor.charAt(i) == '[') i++;
+            if (descriptor.charAt(i) == 'L') i = descriptor.indexOf(';', i);
+            i++;
+        }
+        return size;
+    }
+
+    /**
+     * @return The descriptor of the value returned by the given method descriptor.
+     */
+    public static String returnType(String descriptor) {
+        return descriptor.substring(descriptor.indexOf(')') + 1);
+    }
+}
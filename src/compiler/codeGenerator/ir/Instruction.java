@@ -0,0 +1,162 @@
+package compiler.codeGenerator.ir;
+
+import compiler.codeGenerator.classfile.Opcodes;
+
+/**
+ * One instruction of the generated code. Which of its operands are used depends on the opcode:
+ *
+ * - operand: the slot of a load, store or IINC, or the value of an ICONST;
+ * - constant: the value of an LDC2_W, a long, or the increment of an IINC;
+ * - label: the target of a jump, or the label a LABEL places;
+ * - owner, name and descriptor: the class of a NEW, and the field or method of an access or
+ *   invocation.
+ *
+ * Instructions are immutable, so that passes over the code may share them.
+ */
+public final class Instruction {
+
+    public final Opcode opcode;
+    public final int operand;
+    public final long constant;
+    public final Label label;
+    public final String owner;
+    public final String name;
+    public final String descriptor;
+
+    private Instruction(Opcode opcode, int operand, long constant, Label label, String owner,
+                        String name, String descriptor) {
+        this.opcode = opcode;
+        this.operand = operand;
+        this.constant = constant;
+        this.label = label;
+        this.owner = owner;
+        this.name = name;
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * An instruction without operands.
+     */
+    public static Instruction of(Opcode opcode) {
+        return new Instruction(opcode, 0, 0, null, null, null, null);
+    }
+
+    /**
+     * ICONST, or a load or store of a slot.
+     */
+    public static Instruction of(Opcode opcode, int operand) {
+        return new Instruction(opcode, operand, 0, null, null, null, null);
+    }
+
+    /**
+     * IINC of a slot.
+     */
+    public static Instruction of(Opcode opcode, int slot, int increment) {
+        return new Instruction(opcode, slot, increment, null, null, null, null);
+    }
+
+    /**
+     * LDC2_W of a long.
+     */
+    public static Instruction of(Opcode opcode, long constant) {
+        return new Instruction(opcode, 0, constant, null, null, null, null);
+    }
+
+    /**
+     * A jump to the label, or the LABEL which places it.
+     */
+    public static Instruction of(Opcode opcode, Label label) {
+        return new Instruction(opcode, 0, 0, label, null, null, null);
+    }
+
+    /**
+     * NEW of a class.
+     */
+    public static Instruction of(Opcode opcode, String className) {
+        return new Instruction(opcode, 0, 0, null, className, null, null);
+    }
+
+    /**
+     * A field access or a method invocation.
+     */
+    public static Instruction of(Opcode opcode, String owner, String name, String descriptor) {
+        return new Instruction(opcode, 0, 0, null, owner, name, descriptor);
+    }
+
+    public boolean isLabel() {
+        return opcode == Opcode.LABEL;
+    }
+
+    /**
+     * @return The same instruction, on another slot.
+     */
+    public Instruction withSlot(int slot) {
+        assert isLocal();
+        return new Instruction(opcode, slot, constant, null, null, null, null);
+    }
+
+    /**
+     * @return true for the loads, stores and increments of local variables.
+     */
+    public boolean isLocal() {
+        switch (opcode) {
+        case ILOAD: case ALOAD: case ISTORE: case ASTORE: case IINC:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * @return The change in the depth of the operand stack made by the instruction.
+     */
+    public int stackDelta() {
+        switch (opcode) {
+        case LABEL:
+            return 0;
+        case GETFIELD:
+            return Opcodes.size(descriptor) - 1;
+        case PUTFIELD:
+            return -Opcodes.size(descriptor) - 1;
+        case INVOKEVIRTUAL: case INVOKESPECIAL: case INVOKESTATIC:
+            int delta = Opcodes.size(Opcodes.returnType(descriptor)) - Opcodes.argumentsSize(descriptor);
+            return opcode == Opcode.INVOKESTATIC ? delta : delta - 1;
+        default:
+            return Opcodes.stackDelta(opcode.code());
+        }
+    }
+
+    /**
+     * @return The instruction in Jasmin syntax.
+     */
+    @Override
+    public String toString() {
+        switch (opcode) {
+        case LABEL:
+            return label + ":";
+        case ICONST:
+            if (operand == -1) return "iconst_m1";
+            if (operand >= 0 && operand <= 5) return "iconst_" + operand;
+            if (operand >= Byte.MIN_VALUE && operand <= Byte.MAX_VALUE) return "bipush " + operand;
+            if (operand >= Short.MIN_VALUE && operand <= Short.MAX_VALUE) return "sipush " + operand;
+            return "ldc " + operand;
+        case LDC2_W:
+            return "ldc2_w " + constant;
+        case ILOAD: case ALOAD: case ISTORE: case ASTORE:
+            return opcode.mnemonic() + (operand <= 3 ? "_" : " ") + operand;
+        case IINC:
+            return "iinc " + operand + " " + constant;
+        case NEWARRAY:
+            return "newarray int";
+        case NEW:
+            return "new " + owner;
+        case GETFIELD: case PUTFIELD:
+            return opcode.mnemonic() + " " + owner + "/" + name + " " + descriptor;
+        case INVOKEVIRTUAL: case INVOKESPECIAL: case INVOKESTATIC:
+            return opcode.mnemonic() + " " + owner + "/" + name + descriptor;
+        default:
+            if (label != null) return opcode.mnemonic() + " " + label;
+            return opcode.mnemonic();
+        }
+    }
+}
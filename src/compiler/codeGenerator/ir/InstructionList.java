@@ -0,0 +1,200 @@
+package compiler.codeGenerator.ir;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import compiler.codeGenerator.classfile.Code;
+import compiler.codeGenerator.classfile.Opcodes;
+import compiler.exceptions.InternalCompilerError;
+
+/**
+ * The code of one method, as a list of instructions, and the labels it creates.
+ */
+public final class InstructionList implements Iterable<Instruction> {
+
+    private final ArrayList<Instruction> instructions = new ArrayList<>();
+    private int labels = 0;
+
+    /**
+     * @return A new label, yet to be placed.
+     */
+    public Label newLabel() {
+        return new Label(++labels);
+    }
+
+    public InstructionList add(Instruction instruction) {
+        instructions.add(instruction);
+        return this;
+    }
+
+    public InstructionList add(Opcode opcode) {
+        return add(Instruction.of(opcode));
+    }
+
+    public InstructionList add(Opcode opcode, int operand) {
+        return add(Instruction.of(opcode, operand));
+    }
+
+    public InstructionList add(Opcode opcode, int slot, int increment) {
+        return add(Instruction.of(opcode, slot, increment));
+    }
+
+    public InstructionList add(Opcode opcode, long constant) {
+        return add(Instruction.of(opcode, constant));
+    }
+
+    public InstructionList add(Opcode opcode, Label label) {
+        return add(Instruction.of(opcode, label));
+    }
+
+    public InstructionList add(Opcode opcode, String className) {
+        return add(Instruction.of(opcode, className));
+    }
+
+    public InstructionList add(Opcode opcode, String owner, String name, String descriptor) {
+        return add(Instruction.of(opcode, owner, name, descriptor));
+    }
+
+    /**
+     * Place the label before the next instruction.
+     */
+    public InstructionList place(Label label) {
+        return add(Instruction.of(Opcode.LABEL, label));
+    }
+
+    public InstructionList iconst(int value) {
+        return add(Instruction.of(Opcode.ICONST, value));
+    }
+
+    public int size() {
+        return instructions.size();
+    }
+
+    public Instruction get(int index) {
+        return instructions.get(index);
+    }
+
+    /**
+     * @return The instructions, which may be changed in place by passes over the code.
+     */
+    public List<Instruction> instructions() {
+        return instructions;
+    }
+
+    @Override
+    public Iterator<Instruction> iterator() {
+        return instructions.iterator();
+    }
+
+    /**
+     * Simulates the operand stack along every path of the code, from an empty stack at the start:
+     * the code goes on straight until a goto or a return, and each jump is followed from the
+     * depth it is taken at. The code is assumed to be verifiable, so a position reached by several
+     * paths has the same depth on each.
+     *
+     * @return The highest depth of the operand stack.
+     */
+    public int maxStack() {
+        HashMap<Label, Integer> positions = new HashMap<>();
+        for (int i = 0; i < instructions.size(); ++i)
+            if (instructions.get(i).isLabel()) positions.put(instructions.get(i).label, i);
+
+        int[] depths = new int[instructions.size() + 1];
+        Arrays.fill(depths, -1);
+        ArrayDeque<Integer> pending = new ArrayDeque<>();
+        depths[0] = 0;
+        pending.push(0);
+        int max = 0;
+
+        while (!pending.isEmpty()) {
+            int i = pending.pop();
+            int depth = depths[i];
+            for (; i < instructions.size(); ++i) {
+                Instruction instruction = instructions.get(i);
+                depth += instruction.stackDelta();
+                if (depth < 0) throw new InternalCompilerError("Stack underflow at " + instruction);
+                max = Math.max(max, depth);
+
+                if (instruction.opcode.isJump()) {
+                    int target = positions.get(instruction.label);
+                    if (depths[target] < 0) {
+                        depths[target] = depth;
+                        pending.push(target);
+                    }
+                }
+                if (instruction.opcode.isUnconditional() || depths[i + 1] >= 0) break;
+                depths[i + 1] = depth;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return One past the highest local variable slot the code uses, or 0 if none.
+     */
+    public int maxLocals() {
+        int max = 0;
+        for (Instruction instruction : instructions)
+            if (instruction.isLocal()) max = Math.max(max, instruction.operand + 1);
+        return max;
+    }
+
+    /**
+     * Appends the code in Jasmin syntax, one instruction per line.
+     */
+    public void appendTo(StringBuilder builder) {
+        for (Instruction instruction : instructions) {
+            if (!instruction.isLabel()) builder.append('\t');
+            builder.append(instruction).append('\n');
+        }
+    }
+
+    /**
+     * Assembles the code into the code of a method of a class file.
+     */
+    public void writeTo(Code code) {
+        HashMap<Label, Code.Label> targets = new HashMap<>();
+        for (Instruction instruction : instructions) {
+            Opcode opcode = instruction.opcode;
+            switch (opcode) {
+            case LABEL:
+                code.place(targets.computeIfAbsent(instruction.label, label -> new Code.Label()));
+                break;
+            case ICONST:
+                code.push(instruction.operand);
+                break;
+            case LDC2_W:
+                code.pushLong(instruction.constant);
+                break;
+            case ILOAD: case ALOAD: case ISTORE: case ASTORE:
+                code.local(opcode.code(), instruction.operand);
+                break;
+            case IINC:
+                code.iinc(instruction.operand, (int) instruction.constant);
+                break;
+            case NEWARRAY:
+                code.newarray(Opcodes.T_INT);
+                break;
+            case NEW:
+                code.type(opcode.code(), instruction.owner);
+                break;
+            case GETFIELD: case PUTFIELD:
+                code.field(opcode.code(), instruction.owner, instruction.name, instruction.descriptor);
+                break;
+            case INVOKEVIRTUAL: case INVOKESPECIAL: case INVOKESTATIC:
+                code.invoke(opcode.code(), instruction.owner, instruction.name, instruction.descriptor);
+                break;
+            default:
+                if (opcode.isJump()) {
+                    code.jump(opcode.code(), targets.computeIfAbsent(instruction.label, label -> new Code.Label()));
+                } else {
+                    code.op(opcode.code());
+                }
+            }
+        }
+    }
+}
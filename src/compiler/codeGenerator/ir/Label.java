@@ -0,0 +1,23 @@
+package compiler.codeGenerator.ir;
+
+/**
+ * A position in the code of a method, placed by a LABEL instruction and the target of jumps.
+ * Labels are numbered in the order the method creates them.
+ */
+public final class Label {
+
+    private final int number;
+
+    Label(int number) {
+        this.number = number;
+    }
+
+    public int number() {
+        return number;
+    }
+
+    @Override
+    public String toString() {
+        return "Label_" + number;
+    }
+}
@@ -0,0 +1,55 @@
+package compiler.codeGenerator.ir;
+
+import compiler.codeGenerator.classfile.ClassFile;
+import compiler.codeGenerator.classfile.Code;
+import compiler.codeGenerator.classfile.Opcodes;
+
+/**
+ * A method of the generated class: its signature, its code and the limits of its frame.
+ *
+ * The limits are written to the Jasmin code when set, and always to the class file, which needs
+ * them.
+ */
+public final class MethodCode {
+
+    public final boolean isStatic;
+    public final String name;
+    public final String descriptor;
+    public final InstructionList code = new InstructionList();
+    public int maxStack = -1;
+    public int maxLocals = -1;
+
+    /**
+     * @param isStatic   Whether the method is static; all methods are public.
+     * @param name       The name of the method.
+     * @param descriptor The descriptor of the method, as in ([I)Z.
+     */
+    public MethodCode(boolean isStatic, String name, String descriptor) {
+        this.isStatic = isStatic;
+        this.name = name;
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * @return The method in Jasmin syntax.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(".method public ").append(isStatic ? "static " : "").append(name).append(descriptor).append('\n');
+        if (maxStack >= 0) builder.append("\t.limit stack ").append(maxStack).append('\n');
+        if (maxLocals >= 0) builder.append("\t.limit locals ").append(maxLocals).append('\n');
+        code.appendTo(builder);
+        return builder.append(".end method\n").toString();
+    }
+
+    /**
+     * Adds the method to the class file.
+     */
+    public void writeTo(ClassFile classFile) {
+        assert maxStack >= 0 && maxLocals >= 0;
+        int access = Opcodes.ACC_PUBLIC | (isStatic ? Opcodes.ACC_STATIC : 0);
+        Code classCode = classFile.addMethod(access, name, descriptor, maxStack, maxLocals);
+        code.writeTo(classCode);
+    }
+}
@@ -0,0 +1,112 @@
+package compiler.codeGenerator.ir;
+
+import compiler.codeGenerator.classfile.Opcodes;
+
+/**
+ * The instructions of the generated code. Each is a JVM instruction, but for ICONST, which pushes
+ * an int by whichever instruction is the shortest, and LABEL, which only marks a position.
+ */
+public enum Opcode {
+    ICONST("iconst", Opcodes.ICONST_0),
+    LDC2_W("ldc2_w", Opcodes.LDC2_W),
+    ILOAD("iload", Opcodes.ILOAD),
+    ALOAD("aload", Opcodes.ALOAD),
+    ISTORE("istore", Opcodes.ISTORE),
+    ASTORE("astore", Opcodes.ASTORE),
+    IINC("iinc", Opcodes.IINC),
+    IALOAD("iaload", Opcodes.IALOAD),
+    IASTORE("iastore", Opcodes.IASTORE),
+    POP("pop", Opcodes.POP),
+    DUP("dup", Opcodes.DUP),
+    DUP2("dup2", Opcodes.DUP2),
+    SWAP("swap", Opcodes.SWAP),
+    IADD("iadd", Opcodes.IADD),
+    ISUB("isub", Opcodes.ISUB),
+    IMUL("imul", Opcodes.IMUL),
+    IDIV("idiv", Opcodes.IDIV),
+    INEG("ineg", Opcodes.INEG),
+    ISHL("ishl", Opcodes.ISHL),
+    ISHR("ishr", Opcodes.ISHR),
+    IUSHR("iushr", Opcodes.IUSHR),
+    I2L("i2l", Opcodes.I2L),
+    L2I("l2i", Opcodes.L2I),
+    LMUL("lmul", Opcodes.LMUL),
+    LSHR("lshr", Opcodes.LSHR),
+    IAND("iand", Opcodes.IAND),
+    IXOR("ixor", Opcodes.IXOR),
+    ARRAYLENGTH("arraylength", Opcodes.ARRAYLENGTH),
+    NEWARRAY("newarray", Opcodes.NEWARRAY),
+    NEW("new", Opcodes.NEW),
+    GETFIELD("getfield", Opcodes.GETFIELD),
+    PUTFIELD("putfield", Opcodes.PUTFIELD),
+    INVOKEVIRTUAL("invokevirtual", Opcodes.INVOKEVIRTUAL),
+    INVOKESPECIAL("invokespecial", Opcodes.INVOKESPECIAL),
+    INVOKESTATIC("invokestatic", Opcodes.INVOKESTATIC),
+    IFEQ("ifeq", Opcodes.IFEQ),
+    IFNE("ifne", Opcodes.IFNE),
+    IFLT("iflt", Opcodes.IFLT),
+    IFGE("ifge", Opcodes.IFGE),
+    IFGT("ifgt", Opcodes.IFGT),
+    IFLE("ifle", Opcodes.IFLE),
+    IF_ICMPEQ("if_icmpeq", Opcodes.IF_ICMPEQ),
+    IF_ICMPNE("if_icmpne", Opcodes.IF_ICMPNE),
+    IF_ICMPLT("if_icmplt", Opcodes.IF_ICMPLT),
+    IF_ICMPGE("if_icmpge", Opcodes.IF_ICMPGE),
+    IF_ICMPGT("if_icmpgt", Opcodes.IF_ICMPGT),
+    IF_ICMPLE("if_icmple", Opcodes.IF_ICMPLE),
+    GOTO("goto", Opcodes.GOTO),
+    IRETURN("ireturn", Opcodes.IRETURN),
+    ARETURN("areturn", Opcodes.ARETURN),
+    RETURN("return", Opcodes.RETURN),
+    LABEL("", -1);
+
+    private final String mnemonic;
+    private final int code;
+
+    Opcode(String mnemonic, int code) {
+        this.mnemonic = mnemonic;
+        this.code = code;
+    }
+
+    public String mnemonic() {
+        return mnemonic;
+    }
+
+    /**
+     * @return The opcode of the instruction in the class file format.
+     */
+    public int code() {
+        return code;
+    }
+
+    public boolean isConditional() {
+        return Opcodes.isConditional(code);
+    }
+
+    /**
+     * @return true for the instructions which refer to a label.
+     */
+    public boolean isJump() {
+        return this == GOTO || isConditional();
+    }
+
+    /**
+     * @return true for the instructions after which the code does not go on to the next one.
+     */
+    public boolean isUnconditional() {
+        return this == GOTO || this == IRETURN || this == ARETURN || this == RETURN;
+    }
+
+    /**
+     * @return The conditional jump taken exactly when this one is not.
+     */
+    public Opcode negate() {
+        return forCode(Opcodes.negate(code));
+    }
+
+    private static Opcode forCode(int code) {
+        for (Opcode opcode : values())
+            if (opcode.code == code) return opcode;
+        throw new IllegalArgumentException("No instruction with opcode " + code);
+    }
+}
@@ -0,0 +1,152 @@
+package compiler.codeGenerator.optimizer;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import compiler.codeGenerator.ir.Instruction;
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Label;
+import compiler.codeGenerator.ir.Opcode;
+
+/**
+ * Straightens the jumps between the blocks of a method, once its code is generated, so that the
+ * path through it falls through where it can:
+ *
+ * - a jump to a goto goes straight to where the goto does, and a goto to a return returns;
+ * - a conditional jump over a goto is turned into the opposite jump to where the goto went:
+ *
+ *      ifeq A             ifne B
+ *      goto B      =>  A: ...
+ *   A: ...
+ *
+ * - a goto to the instruction right after it is dropped, and so are the labels nothing jumps to.
+ *
+ * The loops themselves are laid out with their test at the bottom by While.
+ */
+public final class BlockLayout {
+
+    private final List<Instruction> code;
+
+    public BlockLayout(InstructionList code) {
+        this.code = code.instructions();
+    }
+
+    public void optimize() {
+        boolean changed = true;
+        while (changed)
+            changed = threadJumps() | invertJumpsOverGotos() | removeJumpsToNext();
+        removeUnusedLabels();
+    }
+
+    /**
+     * Retargets the jumps to a goto, and replaces the gotos to a return by the return.
+     */
+    private boolean threadJumps() {
+        HashMap<Label, Integer> positions = positions();
+        boolean changed = false;
+        for (int i = 0; i < code.size(); ++i) {
+            Instruction instruction = code.get(i);
+            if (!instruction.opcode.isJump()) continue;
+
+            Label target = instruction.label;
+            HashSet<Label> seen = new HashSet<>();
+            seen.add(target);
+            Instruction next = following(positions.get(target));
+            while (next != null && next.opcode == Opcode.GOTO && seen.add(next.label)) {
+                target = next.label;
+                next = following(positions.get(target));
+            }
+            // A cycle of gotos, as in while (true) {}, is left alone.
+            if (next != null && next.opcode == Opcode.GOTO) continue;
+
+            if (instruction.opcode == Opcode.GOTO && next != null && isReturn(next.opcode)) {
+                code.set(i, next);
+                changed = true;
+            } else if (target != instruction.label) {
+                code.set(i, Instruction.of(instruction.opcode, target));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * ifX A; goto B; A: becomes ifnotX B; A:
+     */
+    private boolean invertJumpsOverGotos() {
+        BitSet dropped = new BitSet(code.size());
+        for (int i = 0; i + 1 < code.size(); ++i) {
+            Instruction jump = code.get(i), next = code.get(i + 1);
+            if (!jump.opcode.isConditional() || next.opcode != Opcode.GOTO || !isPlacedAt(jump.label, i + 2))
+                continue;
+            code.set(i, Instruction.of(jump.opcode.negate(), next.label));
+            dropped.set(i + 1);
+        }
+        return drop(dropped);
+    }
+
+    private boolean removeJumpsToNext() {
+        BitSet dropped = new BitSet(code.size());
+        for (int i = 0; i < code.size(); ++i) {
+            Instruction instruction = code.get(i);
+            if (instruction.opcode == Opcode.GOTO && isPlacedAt(instruction.label, i + 1))
+                dropped.set(i);
+        }
+        return drop(dropped);
+    }
+
+    /**
+     * Removes the instructions at the positions set, in a single pass over the code, rather than
+     * one at a time, which would move the rest of the code each time.
+     *
+     * @return Whether any was removed.
+     */
+    private boolean drop(BitSet dropped) {
+        if (dropped.isEmpty()) return false;
+        int kept = 0;
+        for (int i = 0; i < code.size(); ++i)
+            if (!dropped.get(i)) code.set(kept++, code.get(i));
+        code.subList(kept, code.size()).clear();
+        return true;
+    }
+
+    private void removeUnusedLabels() {
+        HashSet<Label> used = new HashSet<>();
+        for (Instruction instruction : code)
+            if (instruction.opcode.isJump()) used.add(instruction.label);
+        code.removeIf(instruction -> instruction.isLabel() && !used.contains(instruction.label));
+    }
+
+    /**
+     * @return Whether the label is placed among the labels from position i on, before any other
+     *         instruction.
+     */
+    private boolean isPlacedAt(Label label, int i) {
+        for (; i < code.size() && code.get(i).isLabel(); ++i)
+            if (code.get(i).label == label) return true;
+        return false;
+    }
+
+    /**
+     * @return The first instruction from position i on which is not a label, or null at the end of
+     *         the code.
+     */
+    private Instruction following(int i) {
+        for (; i < code.size(); ++i)
+            if (!code.get(i).isLabel()) return code.get(i);
+        return null;
+    }
+
+    private HashMap<Label, Integer> positions() {
+        HashMap<Label, Integer> positions = new HashMap<>();
+        for (int i = 0; i < code.size(); ++i)
+            if (code.get(i).isLabel()) positions.put(code.get(i).label, i);
+        return positions;
+    }
+
+    private static boolean isReturn(Opcode opcode) {
+        return opcode == Opcode.IRETURN || opcode == Opcode.ARETURN || opcode == Opcode.RETURN;
+    }
+}
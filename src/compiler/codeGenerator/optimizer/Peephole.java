@@ -0,0 +1,199 @@
+package compiler.codeGenerator.optimizer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+import compiler.codeGenerator.ir.Instruction;
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
+
+/**
+ * Rewrites short sequences of the generated code into shorter ones, through a table of rules over
+ * a window of consecutive instructions. A window never spans a label, so each rule only sees code
+ * which nothing jumps into halfway:
+ *
+ *   storeLoad        istore n; iload n             =>  dup; istore n
+ *   constantJump     iconst c; ifX L               =>  goto L, or nothing
+ *   constantCompare  iconst a; iconst b; if_icmpX L  =>  goto L, or nothing
+ *   receiverFirst    push; aload_0; swap           =>  aload_0; push
+ *   fieldReload      aload_0; getfield f; aload_0; getfield f  =>  aload_0; getfield f; dup
+ *   pushPop          push; pop                     =>  nothing
+ *
+ * where push is an iconst, a load, or a dup: an instruction which only pushes a value.
+ *
+ * The rules are applied in a single pass, until none matches, and the hits of each are counted.
+ * The gotos to the next instruction and the labels left unused are for BlockLayout.
+ */
+public final class Peephole {
+
+    private static final class Rule {
+        final String name;
+        final int size;
+        final Function<List<Instruction>, List<Instruction>> rewrite;
+
+        /**
+         * @param rewrite Gives the instructions which replace a window of the size, or null if
+         *                the rule does not apply to it.
+         */
+        Rule(String name, int size, Function<List<Instruction>, List<Instruction>> rewrite) {
+            this.name = name;
+            this.size = size;
+            this.rewrite = rewrite;
+        }
+    }
+
+    private static final List<Rule> RULES = List.of(
+        new Rule("storeLoad", 2, Peephole::storeLoad),
+        new Rule("constantJump", 2, Peephole::constantJump),
+        new Rule("constantCompare", 3, Peephole::constantCompare),
+        new Rule("receiverFirst", 3, Peephole::receiverFirst),
+        new Rule("fieldReload", 4, Peephole::fieldReload),
+        new Rule("pushPop", 2, Peephole::pushPop));
+
+    private final List<Instruction> code;
+
+    public Peephole(InstructionList code) {
+        this.code = code.instructions();
+    }
+
+    /**
+     * Runs over the code once, copying each instruction to the output and trying the rules on the
+     * windows which end with it. A rewrite replaces the end of the output, and its instructions go
+     * back to the input, to be copied again in turn: only a window with one of them in it can match
+     * anew, so the code before is not looked at again.
+     *
+     * @return The number of times each rule was applied, for the rules which were.
+     */
+    public LinkedHashMap<String, Integer> optimize() {
+        LinkedHashMap<String, Integer> hits = new LinkedHashMap<>();
+        ArrayDeque<Instruction> input = new ArrayDeque<>(code);
+        ArrayList<Instruction> output = new ArrayList<>(code.size());
+
+        while (!input.isEmpty()) {
+            output.add(input.poll());
+            for (Rule rule : RULES) {
+                List<Instruction> window = window(output, rule.size);
+                if (window == null) continue;
+                List<Instruction> replacement = rule.rewrite.apply(window);
+                if (replacement == null) continue;
+                window.clear();
+                for (int i = replacement.size() - 1; i >= 0; --i)
+                    input.push(replacement.get(i));
+                hits.merge(rule.name, 1, Integer::sum);
+                break;
+            }
+        }
+
+        code.clear();
+        code.addAll(output);
+        return hits;
+    }
+
+    /**
+     * @return The last size instructions of the output, as a view of it, or null if there are not
+     *         as many or a label is among them.
+     */
+    private static List<Instruction> window(List<Instruction> output, int size) {
+        if (size > output.size()) return null;
+        List<Instruction> window = output.subList(output.size() - size, output.size());
+        for (Instruction instruction : window)
+            if (instruction.isLabel()) return null;
+        return window;
+    }
+
+    private static List<Instruction> storeLoad(List<Instruction> window) {
+        Instruction store = window.get(0), load = window.get(1);
+        if (load.operand != store.operand
+                || !(store.opcode == Opcode.ISTORE && load.opcode == Opcode.ILOAD
+                     || store.opcode == Opcode.ASTORE && load.opcode == Opcode.ALOAD))
+            return null;
+        return List.of(Instruction.of(Opcode.DUP), store);
+    }
+
+    private static List<Instruction> constantJump(List<Instruction> window) {
+        Instruction constant = window.get(0), jump = window.get(1);
+        if (constant.opcode != Opcode.ICONST) return null;
+        int value = constant.operand;
+        boolean taken;
+        switch (jump.opcode) {
+        case IFEQ: taken = value == 0; break;
+        case IFNE: taken = value != 0; break;
+        case IFLT: taken = value < 0; break;
+        case IFGE: taken = value >= 0; break;
+        case IFGT: taken = value > 0; break;
+        case IFLE: taken = value <= 0; break;
+        default: return null;
+        }
+        return jumpIf(taken, jump);
+    }
+
+    private static List<Instruction> constantCompare(List<Instruction> window) {
+        Instruction lhs = window.get(0), rhs = window.get(1), jump = window.get(2);
+        if (lhs.opcode != Opcode.ICONST || rhs.opcode != Opcode.ICONST) return null;
+        int a = lhs.operand, b = rhs.operand;
+        boolean taken;
+        switch (jump.opcode) {
+        case IF_ICMPEQ: taken = a == b; break;
+        case IF_ICMPNE: taken = a != b; break;
+        case IF_ICMPLT: taken = a < b; break;
+        case IF_ICMPGE: taken = a >= b; break;
+        case IF_ICMPGT: taken = a > b; break;
+        case IF_ICMPLE: taken = a <= b; break;
+        default: return null;
+        }
+        return jumpIf(taken, jump);
+    }
+
+    /**
+     * The value of a member assignment is pushed before the object the member belongs to, and
+     * swapped with it; a value pushed by a single instruction is only pushed after it.
+     */
+    private static List<Instruction> receiverFirst(List<Instruction> window) {
+        Instruction push = window.get(0), self = window.get(1), swap = window.get(2);
+        if (!pushes(push) || push.opcode == Opcode.DUP || !isThis(self) || swap.opcode != Opcode.SWAP)
+            return null;
+        return List.of(self, push);
+    }
+
+    /**
+     * Nothing is stored in between, so the field still has the value just loaded.
+     */
+    private static List<Instruction> fieldReload(List<Instruction> window) {
+        Instruction self = window.get(0), load = window.get(1);
+        Instruction again = window.get(2), reload = window.get(3);
+        if (!isThis(self) || !isThis(again) || load.opcode != Opcode.GETFIELD
+                || reload.opcode != Opcode.GETFIELD || !load.owner.equals(reload.owner)
+                || !load.name.equals(reload.name))
+            return null;
+        return List.of(self, load, Instruction.of(Opcode.DUP));
+    }
+
+    private static List<Instruction> pushPop(List<Instruction> window) {
+        if (!pushes(window.get(0)) || window.get(1).opcode != Opcode.POP) return null;
+        return Collections.emptyList();
+    }
+
+    private static List<Instruction> jumpIf(boolean taken, Instruction jump) {
+        return taken ? List.of(Instruction.of(Opcode.GOTO, jump.label)) : Collections.emptyList();
+    }
+
+    /**
+     * @return Whether the instruction only pushes a value of one word, without popping any.
+     */
+    private static boolean pushes(Instruction instruction) {
+        switch (instruction.opcode) {
+        case ICONST: case ILOAD: case ALOAD: case DUP:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static boolean isThis(Instruction instruction) {
+        return instruction.opcode == Opcode.ALOAD && instruction.operand == 0;
+    }
+}
@@ -0,0 +1,162 @@
+package compiler.codeGenerator.optimizer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+import compiler.codeGenerator.classfile.Opcodes;
+import compiler.codeGenerator.ir.Instruction;
+import compiler.codeGenerator.ir.Label;
+import compiler.codeGenerator.ir.MethodCode;
+import compiler.codeGenerator.ir.Opcode;
+
+/**
+ * Allocates the local variables of a method to as few slots as it can.
+ *
+ * The slots live at each instruction are found by a backward liveness analysis over the code. Two
+ * slots interfere when one is written while the other is live, and the slots of this and of the
+ * parameters interfere with whatever is live at the start of the method. The interference graph is
+ * then colored greedily, in the order the slots first appear in the code: each slot takes the
+ * lowest slot none of its neighbors has taken. This and the parameters keep their slots, which the
+ * locals may take over once the parameters are dead.
+ */
+public final class RegisterAllocator {
+
+    private final MethodCode method;
+    private final List<Instruction> code;
+
+    // The number of slots taken by this and the parameters.
+    private final int parameters;
+
+    public RegisterAllocator(MethodCode method) {
+        this.method = method;
+        this.code = method.code.instructions();
+        this.parameters = (method.isStatic ? 0 : 1) + Opcodes.argumentsSize(method.descriptor);
+    }
+
+    /**
+     * Renumbers the local variable slots of the code.
+     *
+     * @return The number of slots of the method after the allocation.
+     */
+    public int allocate() {
+        if (code.isEmpty()) return parameters;
+        int slots = Math.max(parameters, method.code.maxLocals());
+        BitSet[] graph = interference(slots);
+
+        int[] colors = new int[slots];
+        for (int slot = 0; slot < slots; ++slot)
+            colors[slot] = slot < parameters ? slot : -1;
+
+        int count = parameters;
+        BitSet taken = new BitSet();
+        for (Instruction instruction : code) {
+            if (!instruction.isLocal() || colors[instruction.operand] >= 0) continue;
+            int slot = instruction.operand;
+            taken.clear();
+            for (int other = graph[slot].nextSetBit(0); other >= 0; other = graph[slot].nextSetBit(other + 1))
+                if (colors[other] >= 0) taken.set(colors[other]);
+            colors[slot] = taken.nextClearBit(0);
+            count = Math.max(count, colors[slot] + 1);
+        }
+
+        for (int i = 0; i < code.size(); ++i) {
+            Instruction instruction = code.get(i);
+            if (instruction.isLocal() && colors[instruction.operand] != instruction.operand)
+                code.set(i, instruction.withSlot(colors[instruction.operand]));
+        }
+        return count;
+    }
+
+    /**
+     * @return For each slot, the slots it interferes with.
+     */
+    private BitSet[] interference(int slots) {
+        BitSet[] live = liveOut();
+        BitSet[] graph = new BitSet[slots];
+        for (int slot = 0; slot < slots; ++slot)
+            graph[slot] = new BitSet(slots);
+
+        for (int i = 0; i < code.size(); ++i) {
+            Instruction instruction = code.get(i);
+            if (!writes(instruction)) continue;
+            int slot = instruction.operand;
+            for (int other = live[i].nextSetBit(0); other >= 0; other = live[i].nextSetBit(other + 1)) {
+                if (other == slot) continue;
+                graph[slot].set(other);
+                graph[other].set(slot);
+            }
+        }
+
+        // This and the parameters are written on entry, along with anything read before written.
+        BitSet entry = liveIn(0, live);
+        entry.set(0, parameters);
+        for (int slot = entry.nextSetBit(0); slot >= 0; slot = entry.nextSetBit(slot + 1)) {
+            graph[slot].or(entry);
+            graph[slot].clear(slot);
+        }
+        return graph;
+    }
+
+    /**
+     * @return For each instruction, the slots live right after it.
+     */
+    private BitSet[] liveOut() {
+        HashMap<Label, Integer> positions = new HashMap<>();
+        for (int i = 0; i < code.size(); ++i)
+            if (code.get(i).isLabel()) positions.put(code.get(i).label, i);
+
+        ArrayList<int[]> successors = new ArrayList<>(code.size());
+        for (int i = 0; i < code.size(); ++i) {
+            Opcode opcode = code.get(i).opcode;
+            boolean next = !opcode.isUnconditional() && i + 1 < code.size();
+            int target = opcode.isJump() ? positions.get(code.get(i).label) : -1;
+            if (next && target >= 0) successors.add(new int[] {i + 1, target});
+            else if (next) successors.add(new int[] {i + 1});
+            else if (target >= 0) successors.add(new int[] {target});
+            else successors.add(new int[0]);
+        }
+
+        BitSet[] out = new BitSet[code.size()];
+        for (int i = 0; i < code.size(); ++i)
+            out[i] = new BitSet();
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = code.size() - 1; i >= 0; --i) {
+                BitSet live = new BitSet();
+                for (int successor : successors.get(i))
+                    live.or(liveIn(successor, out));
+                if (!live.equals(out[i])) {
+                    out[i] = live;
+                    changed = true;
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * @return The slots live right before instruction i, given those live after it.
+     */
+    private BitSet liveIn(int i, BitSet[] out) {
+        BitSet live = (BitSet) out[i].clone();
+        Instruction instruction = code.get(i);
+        if (instruction.opcode == Opcode.ISTORE || instruction.opcode == Opcode.ASTORE)
+            live.clear(instruction.operand);
+        else if (instruction.opcode == Opcode.ILOAD || instruction.opcode == Opcode.ALOAD
+                 || instruction.opcode == Opcode.IINC)
+            live.set(instruction.operand);
+        return live;
+    }
+
+    /**
+     * @return Whether the instruction writes its slot: a store, or an iinc, which also reads it.
+     */
+    private static boolean writes(Instruction instruction) {
+        Opcode opcode = instruction.opcode;
+        return opcode == Opcode.ISTORE || opcode == Opcode.ASTORE || opcode == Opcode.IINC;
+    }
+}
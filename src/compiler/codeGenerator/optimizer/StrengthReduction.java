@@ -0,0 +1,115 @@
+package compiler.codeGenerator.optimizer;
+
+import compiler.codeGenerator.ir.InstructionList;
+import compiler.codeGenerator.ir.Opcode;
+
+/**
+ * Multiplications and divisions of an int by a constant, with cheaper instructions than imul and
+ * idiv (with -o). The results are those of imul and idiv, for every int, overflows included.
+ *
+ * - x * 2^k is x << k, and x * -2^k is -(x << k);
+ * - x / 2^k is an arithmetic shift, once 2^k - 1 is added to a negative x so that the quotient is
+ *   rounded towards zero;
+ * - x / d, for any other d, is the high part of the long product of x by a magic number M close to
+ *   2^p / |d|, shifted right, plus one for a negative x (Granlund and Montgomery, "Division by
+ *   invariant integers using multiplication").
+ *
+ * A divisor of 0 is left to idiv, which throws.
+ */
+public final class StrengthReduction {
+
+    private StrengthReduction() {
+    }
+
+    /**
+     * @return Whether a multiplication by the constant is reduced.
+     */
+    public static boolean reducesMultiplication(int constant) {
+        return constant == -1 || isPowerOfTwo(constant) || (constant < 0 && isPowerOfTwo(-constant));
+    }
+
+    /**
+     * Multiplies the int on the stack by the constant.
+     */
+    public static void multiply(InstructionList code, int constant) {
+        assert reducesMultiplication(constant);
+        // MIN_VALUE is 2^31, as far as the low 32 bits of a product go.
+        if (constant == Integer.MIN_VALUE) {
+            shift(code, Opcode.ISHL, 31);
+            return;
+        }
+        shift(code, Opcode.ISHL, Integer.numberOfTrailingZeros(Math.abs(constant)));
+        if (constant < 0) code.add(Opcode.INEG);
+    }
+
+    /**
+     * @return Whether a division by the constant is reduced.
+     */
+    public static boolean reducesDivision(int divisor) {
+        return divisor != 0 && divisor != 1 && divisor != Integer.MIN_VALUE;
+    }
+
+    /**
+     * Divides the int on the stack by the constant.
+     */
+    public static void divide(InstructionList code, int divisor) {
+        assert reducesDivision(divisor);
+        int d = Math.abs(divisor);
+
+        // x / -1 is only -x.
+        if (d > 1 && isPowerOfTwo(d)) {
+            // x + (x < 0 ? 2^k - 1 : 0), as the low k bits of the sign of x
+            int k = Integer.numberOfTrailingZeros(d);
+            code.add(Opcode.DUP);
+            if (k > 1) shift(code, Opcode.ISHR, k - 1);
+            shift(code, Opcode.IUSHR, 32 - k);
+            code.add(Opcode.IADD);
+            shift(code, Opcode.ISHR, k);
+        } else if (d > 1) {
+            // (int) ((long) x * M >> p) + (x >>> 31)
+            int p = shiftFor(d);
+            code.add(Opcode.DUP);
+            code.add(Opcode.I2L);
+            code.add(Opcode.LDC2_W, magicFor(d, p));
+            code.add(Opcode.LMUL);
+            code.iconst(p);
+            code.add(Opcode.LSHR);
+            code.add(Opcode.L2I);
+            code.add(Opcode.SWAP);
+            shift(code, Opcode.IUSHR, 31);
+            code.add(Opcode.IADD);
+        }
+
+        if (divisor < 0) code.add(Opcode.INEG);
+    }
+
+    /**
+     * @return The least p from 31 up for which M = floor(2^p / d) + 1 gives the quotient of every
+     *     int by d: that is when the error M * d - 2^p, times 2^31, is below 2^p. Then p is at most
+     *     31 + ceil(log2(d)), and M below 2^32, so the product of an int by M fits in a long.
+     */
+    static int shiftFor(int d) {
+        for (int p = 31; ; ++p) {
+            long error = magicFor(d, p) * d - (1L << p);
+            if (error << 31 < 1L << p) return p;
+        }
+    }
+
+    static long magicFor(int d, int p) {
+        return (1L << p) / d + 1;
+    }
+
+    private static boolean isPowerOfTwo(int value) {
+        return value != 0 && (value & (value - 1)) == 0;
+    }
+
+    /**
+     * Shifts the int on the stack, with nothing to emit for a distance of 0 (a multiplication by
+     * -1 is then only ineg).
+     */
+    private static void shift(InstructionList code, Opcode opcode, int distance) {
+        if (distance == 0) return;
+        code.iconst(distance);
+        code.add(opcode);
+    }
+}
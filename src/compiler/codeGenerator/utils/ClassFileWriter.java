@@ -0,0 +1,44 @@
+package compiler.codeGenerator.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import compiler.exceptions.CompilationException;
+
+/**
+ * The ClassFileWriter class outputs a class file with the ".class" extension
+ * and name equal to the class name.
+ */
+public final class ClassFileWriter {
+
+    private final File file;
+
+    /**
+     * Constructor of the ClassFileWriter class
+     * @param path The directory where the file is placed.
+     * @param className The name of the class. This is the name of the file being generated.
+     */
+    public ClassFileWriter(File path, String className) {
+        this.file = new File(path, className + ".class");
+    }
+
+    /**
+     * Writes the bytes of the class file.
+     */
+    public void writeFile(byte[] bytes) {
+        try {
+            Files.createDirectories(this.file.getParentFile().toPath());
+            Files.write(this.file.toPath(), bytes);
+        } catch (IOException e) {
+            throw new CompilationException("Could not write .class file " + this.file.getName(), e);
+        }
+    }
+
+    /**
+     * @return The file being written.
+     */
+    public File getFile() {
+        return this.file;
+    }
+}
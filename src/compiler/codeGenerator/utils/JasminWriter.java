@@ -1,54 +1,73 @@
 package compiler.codeGenerator.utils;
 
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import compiler.exceptions.CompilationException;
 
 /**
  * The JasminWriter class outputs JVM instructions to a file with the ".j" extension
- * and name equal to the class name.  
+ * and name equal to the class name.
+ *
+ * The code is written through a buffer as it is generated, so that a class is never held whole in
+ * memory. The writer must be closed once all the code is written.
  */
-public final class JasminWriter {
+public final class JasminWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
 
-    private PrintWriter writer;
+    private final Writer writer;
+    private final File file;
 
     /**
      * Constructor of the JasminWriter class
+     * @param path The directory where the file is placed.
      * @param className The name of the class. This is the name of the file being generated.
      */
-    public JasminWriter(String className) {
+    public JasminWriter(File path, String className) {
 
-        File file = new File(Config.classFilesPath, className + ".j");
-        File path = new File(Config.classFilesPath);
+        this.file = new File(path, className + ".j");
         try {
-            if(!path.exists())path.mkdirs();
-            if(!file.exists())file.createNewFile();
-            this.writer = new PrintWriter(file);
-        } catch(FileNotFoundException e) {
-            e.printStackTrace();
-            System.out.println("ERROR: could not generate .j file for class " + className);
-            System.exit(1);
-        } catch(IOException e)
-        {
-            System.out.println("ERROR: could not create .j file for class " + className);
-            System.exit(1);
+            Files.createDirectories(path.toPath());
+            this.writer = new BufferedWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch(IOException e) {
+            throw new CompilationException("Could not create .j file for class " + className, e);
         }
     }
 
     /**
-     * Writes a set of components to the file, in the same order as they are provided
-     * @param fileComponents The components to be written to the file.
+     * Writes a piece of code, as is, after the code written before.
      */
-    public void writeFile(String... fileComponents) {
-        for(String component: fileComponents) {
-            this.writer.write(component + '\n');
+    public void write(String code) {
+        try {
+            this.writer.write(code);
+        } catch(IOException e) {
+            throw new CompilationException("Could not write .j file " + this.file.getName(), e);
         }
-        this.writer.flush();
     }
 
-    @Override 
-    protected void finalize() throws Throwable {
-        this.writer.close();
+    /**
+     * @return The file being written.
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Flushes the code written and closes the file.
+     */
+    @Override
+    public void close() {
+        try {
+            this.writer.close();
+        } catch(IOException e) {
+            throw new CompilationException("Could not write .j file " + this.file.getName(), e);
+        }
     }
-}
\ No newline at end of file
+
+}
@@ -22,10 +22,13 @@ import jjt.SimpleNode;
  */
 public class AssignmentFactory extends BaseDAGFactory {
   private final ExpressionFactory factory;
+  private final ValueTable values;
 
-  AssignmentFactory(FunctionLocals locals, CompilationStatus tracker) {
-    super(locals, tracker);
-    this.factory = new ExpressionFactory(locals, this);
+  AssignmentFactory(FunctionLocals locals, CompilationStatus tracker, ValueTable values,
+                    boolean optimize) {
+    super(locals, tracker, optimize);
+    this.factory = new ExpressionFactory(locals, this, values, optimize);
+    this.values = values;
   }
 
   /**
@@ -62,6 +65,8 @@ public class AssignmentFactory extends BaseDAGFactory {
     DAGVariable variable = buildVariable(variableNode);
     DAGExpression expression = factory.build(expressionNode, variable.getType());
 
+    if (variable.getVariable() != null) values.assigned(variable.getVariable());
+
     return new DAGAssignment(variable, expression);
   }
 
@@ -84,6 +89,8 @@ public class AssignmentFactory extends BaseDAGFactory {
     DAGExpression indexExpression = factory.build(indexExpressionNode, intDescriptor);
     DAGExpression assignedExpression = factory.build(assignedExpressionNode, intDescriptor);
 
+    values.memoryChanged();
+
     return new DAGBracketAssignment(var, assignedExpression, indexExpression);
   }
 
@@ -13,16 +13,19 @@ import jjt.SimpleNode;
 public abstract class BaseDAGFactory extends CompilationStatus {
   final FunctionLocals locals;
   final CompilationStatus tracker;
+  final boolean optimize;
 
   /**
    * Construct a new factory based on this symbol table.
    *
-   * @param locals the function's symbol table.
+   * @param locals   the function's symbol table.
+   * @param optimize whether expressions are simplified as they are built (-o).
    */
-  BaseDAGFactory(FunctionLocals locals, CompilationStatus tracker) {
+  BaseDAGFactory(FunctionLocals locals, CompilationStatus tracker, boolean optimize) {
     assert locals != null && tracker != null;
     this.locals = locals;
     this.tracker = tracker;
+    this.optimize = optimize;
   }
 
   /**
@@ -0,0 +1,131 @@
+package compiler.dag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Generic static utility functions to walk a DAG.
+ */
+public final class DAGNodes {
+  private DAGNodes() {}
+
+  /**
+   * @return The nodes directly below the given one, in evaluation order. The condition of a branch
+   *     comes first, then its bodies.
+   */
+  public static List<DAGNode> children(DAGNode node) {
+    ArrayList<DAGNode> children = new ArrayList<>();
+
+    if (node instanceof DAGMulti) {
+      Collections.addAll(children, ((DAGMulti) node).body);
+    } else if (node instanceof DAGBracketAssignment) {
+      DAGBracketAssignment assignment = (DAGBracketAssignment) node;
+      children.add(assignment.assignVariable);
+      children.add(assignment.indexExpression);
+      children.add(assignment.assignedExpression);
+    } else if (node instanceof DAGAssignment) {
+      children.add(((DAGAssignment) node).assignedExpression);
+    } else if (node instanceof DAGIfElse) {
+      DAGIfElse ifElse = (DAGIfElse) node;
+      children.add(ifElse.condition.condition);
+      children.add(ifElse.getThenNode());
+      children.add(ifElse.getElseNode());
+    } else if (node instanceof DAGWhile) {
+      DAGWhile loop = (DAGWhile) node;
+      children.add(loop.condition.condition);
+      children.add(loop.body);
+    } else if (node instanceof DAGReturnExpression) {
+      children.add(((DAGReturnExpression) node).returnExpression);
+    } else if (node instanceof DAGBinaryOp) {
+      DAGBinaryOp binaryOp = (DAGBinaryOp) node;
+      children.add(binaryOp.lhs);
+      children.add(binaryOp.rhs);
+    } else if (node instanceof DAGBracket) {
+      DAGBracket bracket = (DAGBracket) node;
+      children.add(bracket.arrayExpression);
+      children.add(bracket.indexExpression);
+    } else if (node instanceof DAGLength) {
+      children.add(((DAGLength) node).expression);
+    } else if (node instanceof DAGNot) {
+      children.add(((DAGNot) node).expression);
+    } else if (node instanceof DAGNewIntArray) {
+      children.add(((DAGNewIntArray) node).indexExpression);
+    } else if (node instanceof DAGCall) {
+      if (node instanceof DAGMethodCall) children.add(((DAGMethodCall) node).expression);
+      Collections.addAll(children, ((DAGCall) node).arguments);
+    }
+
+    return children;
+  }
+
+  /**
+   * @return The number of distinct nodes reachable from the given one.
+   */
+  public static int count(DAGNode root) {
+    IdentityHashMap<DAGNode, Boolean> seen = new IdentityHashMap<>();
+    walk(root, seen);
+    return seen.size();
+  }
+
+  /**
+   * @return The number of references to nodes already referenced elsewhere in the DAG below the
+   *     given one; that is, how many times a subexpression was reused instead of built anew.
+   */
+  public static int countShared(DAGNode root) {
+    return walk(root, new IdentityHashMap<>());
+  }
+
+  /**
+   * @return The number of references to each node below the given one, from the distinct nodes
+   *     above it. A node referenced more than once is shared.
+   */
+  public static IdentityHashMap<DAGNode, Integer> references(DAGNode root) {
+    IdentityHashMap<DAGNode, Integer> references = new IdentityHashMap<>();
+    IdentityHashMap<DAGNode, Boolean> seen = new IdentityHashMap<>();
+    ArrayList<DAGNode> stack = new ArrayList<>();
+    stack.add(root);
+    seen.put(root, Boolean.TRUE);
+
+    while (!stack.isEmpty()) {
+      DAGNode node = stack.remove(stack.size() - 1);
+      for (DAGNode child : children(node)) {
+        references.merge(child, 1, Integer::sum);
+        if (seen.put(child, Boolean.TRUE) == null) stack.add(child);
+      }
+    }
+    return references;
+  }
+
+  /**
+   * @return Whether evaluating the expression has no effect, and cannot throw: it has no calls,
+   *     allocations, array accesses or divisions by anything but a nonzero constant.
+   */
+  public static boolean isPure(DAGExpression expression) {
+    if (expression instanceof DAGIntegerConstant || expression instanceof DAGBooleanConstant
+        || expression instanceof DAGVariable) {
+      return true;
+    }
+    if (expression instanceof DAGNot) return isPure(((DAGNot) expression).expression);
+    if (expression instanceof DAGBinaryOp) {
+      DAGBinaryOp binaryOp = (DAGBinaryOp) expression;
+      if (binaryOp.op == BinaryOperator.DIV && (!(binaryOp.rhs instanceof DAGIntegerConstant)
+          || ((DAGIntegerConstant) binaryOp.rhs).constant == 0)) {
+        return false;
+      }
+      return isPure(binaryOp.lhs) && isPure(binaryOp.rhs);
+    }
+    return false;
+  }
+
+  private static int walk(DAGNode node, IdentityHashMap<DAGNode, Boolean> seen) {
+    if (seen.put(node, Boolean.TRUE) != null) return 1;
+
+    int shared = 0;
+    for (DAGNode child : children(node)) {
+      shared += walk(child, seen);
+    }
+    return shared;
+  }
+}
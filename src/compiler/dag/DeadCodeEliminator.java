@@ -0,0 +1,135 @@
+package compiler.dag;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import compiler.dag.flow.BasicBlock;
+import compiler.dag.flow.ControlFlowGraph;
+import compiler.dag.flow.Liveness;
+import compiler.dag.flow.Variables;
+import compiler.symbols.VariableDescriptor;
+
+/**
+ * Removes from a method body, with -o, the code which does not run or whose results are not used:
+ *
+ * - an if/else on a constant condition is replaced by the body it takes, and a while loop on a
+ *   false condition is dropped;
+ * - an assignment to a local variable or parameter which is not live after it is dropped, and so
+ *   is an expression statement, as long as the expression is pure: it has no effect and cannot
+ *   throw (see DAGNodes.isPure). An assignment to a field or an array element is never dropped.
+ *
+ * Dropping an assignment may leave the assignments whose values it read dead too, so the
+ * liveness of the variables is solved again until no more statements are dropped.
+ */
+public final class DeadCodeEliminator {
+  private final DAGMulti body;
+  private int removed = 0;
+
+  public DeadCodeEliminator(DAGMulti body) {
+    this.body = body;
+  }
+
+  /**
+   * @return The body, without its dead code.
+   */
+  public DAGMulti eliminate() {
+    Set<DAGNode> dead = Collections.emptySet();
+    DAGMulti result = body;
+    do {
+      result = (DAGMulti) rebuild(result, dead);
+      dead = deadStatements(result);
+      removed += dead.size();
+    } while (!dead.isEmpty());
+    return result;
+  }
+
+  /**
+   * @return The number of statements dropped as dead, the branches pruned aside.
+   */
+  public int removed() {
+    return removed;
+  }
+
+  /**
+   * @return The node, with the branches on constant conditions pruned, and without the dead
+   *     statements. A statement left with nothing to do becomes an empty block.
+   */
+  private DAGNode rebuild(DAGNode node, Set<DAGNode> dead) {
+    if (dead.contains(node)) return new DAGMulti(new DAGNode[0]);
+
+    if (node instanceof DAGMulti) {
+      ArrayList<DAGNode> nodes = new ArrayList<>();
+      for (DAGNode child : ((DAGMulti) node).body) {
+        DAGNode rebuilt = rebuild(child, dead);
+        if (!isEmpty(rebuilt)) nodes.add(rebuilt);
+      }
+      return new DAGMulti(nodes.toArray(new DAGNode[0]));
+    }
+
+    if (node instanceof DAGIfElse) {
+      DAGIfElse ifElse = (DAGIfElse) node;
+      DAGExpression condition = ifElse.condition.condition;
+      if (condition instanceof DAGBooleanConstant) {
+        boolean value = ((DAGBooleanConstant) condition).getValue();
+        return rebuild(value ? ifElse.getThenNode() : ifElse.getElseNode(), dead);
+      }
+      return new DAGIfElse(ifElse.condition, rebuild(ifElse.getThenNode(), dead),
+                           rebuild(ifElse.getElseNode(), dead));
+    }
+
+    if (node instanceof DAGWhile) {
+      DAGWhile loop = (DAGWhile) node;
+      DAGExpression condition = loop.condition.condition;
+      if (condition instanceof DAGBooleanConstant && !((DAGBooleanConstant) condition).getValue()) {
+        return new DAGMulti(new DAGNode[0]);
+      }
+      return new DAGWhile(loop.condition, rebuild(loop.body, dead));
+    }
+
+    return node;
+  }
+
+  /**
+   * @return The statements of the body which are dead: walking each block backward from the
+   *     variables live at its bottom, the pure assignments to variables not live after them, and
+   *     the pure expression statements. A dead statement does not make what it reads live.
+   */
+  private Set<DAGNode> deadStatements(DAGMulti body) {
+    ControlFlowGraph graph = ControlFlowGraph.build(body);
+    Variables variables = new Variables(graph);
+    Liveness liveness = new Liveness(graph, variables);
+    liveness.solve();
+
+    Set<DAGNode> dead = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (BasicBlock block : graph.reversePostorder()) {
+      BitSet live = liveness.out(block);
+      List<DAGNode> nodes = block.getNodes();
+      for (int i = nodes.size() - 1; i >= 0; --i) {
+        DAGNode node = nodes.get(i);
+        if (node != block.getCondition() && isDead(node, live, variables)) {
+          dead.add(node);
+        } else {
+          liveness.apply(node, live);
+        }
+      }
+    }
+    return dead;
+  }
+
+  private static boolean isDead(DAGNode node, BitSet live, Variables variables) {
+    if (node instanceof DAGExpression) return DAGNodes.isPure((DAGExpression) node);
+
+    VariableDescriptor assigned = Variables.assigned(node);
+    if (assigned == null) return false;
+    return !live.get(variables.indexOf(assigned))
+        && DAGNodes.isPure(((DAGAssignment) node).assignedExpression);
+  }
+
+  private static boolean isEmpty(DAGNode node) {
+    return node instanceof DAGMulti && ((DAGMulti) node).body.length == 0;
+  }
+}
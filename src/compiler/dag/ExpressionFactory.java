@@ -52,12 +52,17 @@ import jjt.SimpleNode;
  */
 public class ExpressionFactory extends BaseDAGFactory {
   private final ExpressionTransformer transformer;
+  final ValueTable values;
 
   /**
-   * @param locals The table of locals variables.
+   * @param locals   The table of locals variables.
+   * @param values   The expressions built before in the method, for reuse.
+   * @param optimize Whether constant expressions are folded and simplified.
    */
-  ExpressionFactory(FunctionLocals locals, CompilationStatus tracker) {
-    super(locals, tracker);
+  ExpressionFactory(FunctionLocals locals, CompilationStatus tracker, ValueTable values,
+                    boolean optimize) {
+    super(locals, tracker, optimize);
+    this.values = values;
     this.transformer = new ExpressionOptimizer(this);
   }
 
@@ -285,9 +290,17 @@ public class ExpressionFactory extends BaseDAGFactory {
     SimpleNode lhsNode = node.jjtGetChild(0);
     SimpleNode rhsNode = node.jjtGetChild(1);
 
-    DAGExpression lhsExpression = build(lhsNode);
-    DAGExpression rhsExpression = build(rhsNode);
     BinaryOperator op = BinaryOperator.from(node);
+    DAGExpression lhsExpression = build(lhsNode), rhsExpression;
+
+    // The right hand side of && is not always evaluated: its expressions are not reused after it.
+    if (op == BinaryOperator.AND) {
+      int scope = values.open();
+      rhsExpression = build(rhsNode);
+      values.close(scope);
+    } else {
+      rhsExpression = build(rhsNode);
+    }
 
     assertType(lhsExpression, op.getOperandType(), lhsNode);
     assertType(rhsExpression, op.getOperandType(), rhsNode);
@@ -446,7 +459,7 @@ public class ExpressionFactory extends BaseDAGFactory {
     // * Write the most generic error possible.
     // ERROR #1: Object expression is not of class type.
     if (objectType != null && !objectType.isClass()) {
-      System.err.println("Expression used in method call is not of class type");
+      DiagnosticsHandler.notOfObjectType(node);
       update(Codes.MAJOR_ERRORS);
     } else if (objectType != null) {
       ClassDescriptor classDescriptor = (ClassDescriptor) objectType;
@@ -611,9 +624,6 @@ public class ExpressionFactory extends BaseDAGFactory {
     }
 
     if (expression.getType() != null && !typematch(expression.getType(), expectedType)) {
-      System.out.println(expression.getType().toString());
-      System.out.println(expectedType);
-      System.out.println(((ClassDescriptor)expression.getType()).getSuper());
       DiagnosticsHandler.typeMismatch(node, expectedType, expression.getType());
       update(Codes.MAJOR_ERRORS);
     }
@@ -1,35 +1,112 @@
 package compiler.dag;
 
-import java.util.HashMap;
-
 /**
- * Place all expression optimizations here...
+ * The optimizations applied to each expression as it is built.
+ *
+ * Equal expressions are always reused, for as long as the ValueTable of the method keeps them
+ * valid. With -o, expressions are also folded and simplified as
+ * they are built, their operands having been optimized already: operations on constants are
+ * computed, with the wrapping arithmetic of Java ints, but for divisions by zero, which are left
+ * to throw at run time; and identities such as x + 0, x * 1, x * 0, true && e and !!e are applied,
+ * as long as no operand with side effects is dropped.
  */
 class ExpressionOptimizer extends ExpressionTransformer {
-  /**
-   * Set of DAG expressions already constructed, for common subexpression elimination.
-   */
-  private final HashMap<DAGExpression, DAGExpression> cache = new HashMap<>();
-
   ExpressionOptimizer(ExpressionFactory factory) {
     super(factory);
   }
 
-  private DAGExpression reuse(DAGExpression expression) {
-    if (cache.containsKey(expression)) {
-      return cache.get(expression);
-    } else {
-      cache.put(expression, expression);
-      return expression;
-    }
-  }
-
   @Override
   public DAGExpression optimize(DAGExpression expression) {
-    expression = reuse(expression);
+    if (factory.optimize) expression = simplify(expression);
+
+    // Common subexpression elimination, across the statements of the method.
+    expression = factory.values.reuse(expression);
 
-    // ...
+    // A call may store into arrays and fields, once its arguments are evaluated.
+    if (expression instanceof DAGCall) factory.values.memoryChanged();
 
     return expression;
   }
+
+  private DAGExpression simplify(DAGExpression expression) {
+    if (expression instanceof DAGNot) return simplifyNot((DAGNot) expression);
+    if (expression instanceof DAGBinaryOp) return simplifyBinaryOp((DAGBinaryOp) expression);
+    return expression;
+  }
+
+  private DAGExpression simplifyNot(DAGNot not) {
+    DAGExpression operand = not.expression;
+
+    // !true, !false
+    if (operand instanceof DAGBooleanConstant) {
+      return new DAGBooleanConstant(!((DAGBooleanConstant) operand).constant);
+    }
+
+    // !!e
+    if (operand instanceof DAGNot) return ((DAGNot) operand).expression;
+
+    return not;
+  }
+
+  private DAGExpression simplifyBinaryOp(DAGBinaryOp binaryOp) {
+    DAGExpression lhs = binaryOp.lhs, rhs = binaryOp.rhs;
+
+    if (lhs instanceof DAGIntegerConstant && rhs instanceof DAGIntegerConstant) {
+      int l = ((DAGIntegerConstant) lhs).constant, r = ((DAGIntegerConstant) rhs).constant;
+      switch (binaryOp.op) {
+      case SUM:
+        return new DAGIntegerConstant(l + r);
+      case SUB:
+        return new DAGIntegerConstant(l - r);
+      case MUL:
+        return new DAGIntegerConstant(l * r);
+      case DIV:
+        if (r != 0) return new DAGIntegerConstant(l / r);
+        break;
+      case LT:
+        return new DAGBooleanConstant(l < r);
+      default:
+        break;
+      }
+    }
+
+    switch (binaryOp.op) {
+    case AND:
+      // true && e, false && e: e is not evaluated when the left hand side is false.
+      if (lhs instanceof DAGBooleanConstant) {
+        return ((DAGBooleanConstant) lhs).constant ? rhs : lhs;
+      }
+      // e && true, e && false
+      if (rhs instanceof DAGBooleanConstant) {
+        if (((DAGBooleanConstant) rhs).constant) return lhs;
+        if (DAGNodes.isPure(lhs)) return rhs;
+      }
+      break;
+    case SUM:
+      if (isConstant(lhs, 0)) return rhs;
+      if (isConstant(rhs, 0)) return lhs;
+      break;
+    case SUB:
+      if (isConstant(rhs, 0)) return lhs;
+      break;
+    case MUL:
+      if (isConstant(lhs, 1)) return rhs;
+      if (isConstant(rhs, 1)) return lhs;
+      if (isConstant(lhs, 0) && DAGNodes.isPure(rhs)) return lhs;
+      if (isConstant(rhs, 0) && DAGNodes.isPure(lhs)) return rhs;
+      break;
+    case DIV:
+      if (isConstant(rhs, 1)) return lhs;
+      break;
+    default:
+      break;
+    }
+
+    return binaryOp;
+  }
+
+  private static boolean isConstant(DAGExpression expression, int value) {
+    return expression instanceof DAGIntegerConstant
+        && ((DAGIntegerConstant) expression).constant == value;
+  }
 }
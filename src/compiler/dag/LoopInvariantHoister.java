@@ -0,0 +1,337 @@
+package compiler.dag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import compiler.dag.flow.Variables;
+import compiler.symbols.FunctionLocals;
+import compiler.symbols.LocalDescriptor;
+import compiler.symbols.VariableDescriptor;
+
+/**
+ * Hoists, with -o, the expressions of a while loop whose values do not change while it runs into
+ * new local variables, assigned just before the loop: its preheader. The loop then loads them.
+ *
+ * An expression is invariant when the variables it reads are not assigned anywhere in the loop,
+ * and it has no calls or allocations. A field read is invariant only if the loop assigns no such
+ * field and has no calls, and an array element only if the loop also stores to no array, as any
+ * array may be the one read. The length of an array is invariant with the array it is of.
+ *
+ * Only the expressions dearer to evaluate than to load are hoisted, the largest invariant ones
+ * first. The preheader runs even when the loop body does not, so an expression which may throw
+ * (an array access, or a division by a variable) is hoisted only from the condition of the loop,
+ * if nothing which may throw or have an effect is evaluated before it there: the condition is
+ * evaluated at least once, and the exception is thrown where it would be.
+ *
+ * The loops are visited from the outermost in, so an expression invariant in a nest of loops is
+ * hoisted out of all of them.
+ */
+public final class LoopInvariantHoister {
+  private final DAGMulti body;
+  private final FunctionLocals locals;
+  private int hoisted = 0;
+  private int names = 0;
+
+  // The variables, fields and effects of the loop being visited.
+  private HashSet<VariableDescriptor> assigned;
+  private boolean storesArrays;
+  private boolean calls;
+
+  // The invariants of the loop being visited, in the order they are evaluated, by value.
+  private LinkedHashSet<DAGExpression> invariants;
+
+  public LoopInvariantHoister(DAGMulti body, FunctionLocals locals) {
+    this.body = body;
+    this.locals = locals;
+  }
+
+  /**
+   * @return The body, with the invariants of its loops hoisted out of them.
+   */
+  public DAGMulti hoist() {
+    return (DAGMulti) rebuild(body);
+  }
+
+  /**
+   * @return The number of expressions hoisted.
+   */
+  public int hoisted() {
+    return hoisted;
+  }
+
+  private DAGNode rebuild(DAGNode node) {
+    if (node instanceof DAGMulti) {
+      DAGNode[] nodes = ((DAGMulti) node).body.clone();
+      for (int i = 0; i < nodes.length; ++i) {
+        nodes[i] = rebuild(nodes[i]);
+      }
+      return new DAGMulti(nodes);
+    }
+
+    if (node instanceof DAGIfElse) {
+      DAGIfElse ifElse = (DAGIfElse) node;
+      return new DAGIfElse(ifElse.condition, rebuild(ifElse.getThenNode()),
+                           rebuild(ifElse.getElseNode()));
+    }
+
+    if (node instanceof DAGWhile) return hoistFrom((DAGWhile) node);
+
+    return node;
+  }
+
+  /**
+   * @return The loop, preceded by the assignments of its invariants to new local variables if it
+   *     has any, and with the loops in its body visited in turn.
+   */
+  private DAGNode hoistFrom(DAGWhile loop) {
+    assigned = new HashSet<>();
+    storesArrays = false;
+    calls = false;
+    scan(loop, new IdentityHashMap<>());
+
+    invariants = new LinkedHashSet<>();
+    collect(loop.condition.condition, true);
+    collectStatement(loop.body);
+    if (invariants.isEmpty()) return new DAGWhile(loop.condition, rebuild(loop.body));
+
+    // Each assignment may load the invariants assigned before it.
+    ArrayList<DAGNode> nodes = new ArrayList<>();
+    HashMap<DAGExpression, DAGLocal> preheader = new HashMap<>();
+    for (DAGExpression expression : invariants) {
+      DAGLocal temporary = newTemporary(expression);
+      DAGExpression value = (DAGExpression) replace(expression, preheader, new IdentityHashMap<>());
+      nodes.add(new DAGAssignment(temporary, value));
+      preheader.put(expression, temporary);
+      ++hoisted;
+    }
+
+    DAGWhile hoistedLoop = (DAGWhile) replace(loop, preheader, new IdentityHashMap<>());
+    nodes.add(new DAGWhile(hoistedLoop.condition, rebuild(hoistedLoop.body)));
+    return new DAGMulti(nodes.toArray(new DAGNode[0]));
+  }
+
+  private DAGLocal newTemporary(DAGExpression expression) {
+    String name;
+    do {
+      name = "$loop" + names++;
+    } while (locals.hasVariable(name) || locals.getFunction().hasParameter(name));
+    return new DAGLocal(new LocalDescriptor(expression.getType(), name, locals));
+  }
+
+  /**
+   * Finds the variables and fields the loop assigns, and whether it stores to arrays or calls
+   * methods. An allocation of a class counts as a call of its constructor.
+   */
+  private void scan(DAGNode node, IdentityHashMap<DAGNode, Boolean> seen) {
+    if (seen.put(node, Boolean.TRUE) != null) return;
+
+    VariableDescriptor variable = Variables.assigned(node);
+    if (variable != null) assigned.add(variable);
+    if (node instanceof DAGBracketAssignment) {
+      storesArrays = true;
+    } else if (node instanceof DAGAssignment) {
+      DAGVariable assignVariable = ((DAGAssignment) node).assignVariable;
+      if (assignVariable instanceof DAGMember) assigned.add(assignVariable.getVariable());
+    }
+    if (node instanceof DAGCall || node instanceof DAGNewClass) calls = true;
+
+    for (DAGNode child : DAGNodes.children(node)) {
+      scan(child, seen);
+    }
+  }
+
+  private void collectStatement(DAGNode node) {
+    if (node instanceof DAGExpression) {
+      collect((DAGExpression) node, false);
+      return;
+    }
+    for (DAGNode child : DAGNodes.children(node)) {
+      collectStatement(child);
+    }
+  }
+
+  /**
+   * Looks for the invariants of the expression to hoist, in evaluation order. One which may throw
+   * is hoisted only if the expression is exposed: it is evaluated on entry to the loop, before
+   * anything else which may throw or have an effect.
+   *
+   * @return Whether what is left of the expression to evaluate in the loop cannot throw, and has
+   *     no effect.
+   */
+  private boolean collect(DAGExpression expression, boolean exposed) {
+    if (invariants.contains(expression)) return true;
+    if (isHoistable(expression) && (exposed || !mayThrow(expression))) {
+      invariants.add(expression);
+      return true;
+    }
+
+    // The right hand side of && may not be evaluated.
+    if (expression instanceof DAGBinaryOp && ((DAGBinaryOp) expression).op == BinaryOperator.AND) {
+      DAGBinaryOp binaryOp = (DAGBinaryOp) expression;
+      boolean safe = collect(binaryOp.lhs, exposed);
+      return collect(binaryOp.rhs, false) && safe;
+    }
+
+    boolean safe = true;
+    for (DAGNode child : DAGNodes.children(expression)) {
+      safe = collect((DAGExpression) child, exposed && safe) && safe;
+    }
+    return safe && !throwsOrActs(expression);
+  }
+
+  /**
+   * @return Whether the expression is invariant, and dearer to evaluate than to load: it is not a
+   *     constant or a local variable.
+   */
+  private boolean isHoistable(DAGExpression expression) {
+    if (expression instanceof DAGIntegerConstant || expression instanceof DAGBooleanConstant)
+      return false;
+    if (expression instanceof DAGVariable && !(expression instanceof DAGMember)) return false;
+    return isInvariant(expression);
+  }
+
+  private boolean isInvariant(DAGExpression expression) {
+    if (expression instanceof DAGIntegerConstant || expression instanceof DAGBooleanConstant
+        || expression instanceof DAGThis) {
+      return true;
+    }
+    if (expression instanceof DAGMember) {
+      return !calls && !assigned.contains(((DAGMember) expression).getVariable());
+    }
+    if (expression instanceof DAGVariable) {
+      return !assigned.contains(((DAGVariable) expression).getVariable());
+    }
+    if (expression instanceof DAGBracket && (calls || storesArrays)) return false;
+    if (expression instanceof DAGNot || expression instanceof DAGBinaryOp
+        || expression instanceof DAGLength || expression instanceof DAGBracket) {
+      for (DAGNode child : DAGNodes.children(expression)) {
+        if (!isInvariant((DAGExpression) child)) return false;
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return Whether evaluating the expression may throw, counting the invariants found so far as
+   *     loaded.
+   */
+  private boolean mayThrow(DAGExpression expression) {
+    if (invariants.contains(expression)) return false;
+    if (throwsOrActs(expression)) return true;
+    for (DAGNode child : DAGNodes.children(expression)) {
+      if (mayThrow((DAGExpression) child)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return Whether the operation of the expression itself, its operands aside, may throw or have
+   *     an effect.
+   */
+  private static boolean throwsOrActs(DAGExpression expression) {
+    if (expression instanceof DAGLength || expression instanceof DAGBracket
+        || expression instanceof DAGCall || expression instanceof DAGNew) {
+      return true;
+    }
+    if (expression instanceof DAGBinaryOp) {
+      DAGBinaryOp binaryOp = (DAGBinaryOp) expression;
+      return binaryOp.op == BinaryOperator.DIV && (!(binaryOp.rhs instanceof DAGIntegerConstant)
+          || ((DAGIntegerConstant) binaryOp.rhs).constant == 0);
+    }
+    return false;
+  }
+
+  /**
+   * @return The node, with the expressions of the table replaced by the loads of their
+   *     temporaries. A node left the same is not rebuilt, and a node shared within the loop stays
+   *     shared.
+   */
+  private DAGNode replace(DAGNode node, Map<DAGExpression, DAGLocal> temporaries,
+                          IdentityHashMap<DAGNode, DAGNode> replaced) {
+    if (node instanceof DAGExpression) {
+      DAGLocal temporary = temporaries.get(node);
+      if (temporary != null) return new DAGLocal(temporary.getVariable());
+    }
+
+    DAGNode result = replaced.get(node);
+    if (result != null) return result;
+
+    List<DAGNode> children = DAGNodes.children(node);
+    DAGNode[] rebuilt = new DAGNode[children.size()];
+    boolean changed = false;
+    for (int i = 0; i < rebuilt.length; ++i) {
+      rebuilt[i] = replace(children.get(i), temporaries, replaced);
+      changed |= rebuilt[i] != children.get(i);
+    }
+
+    result = changed ? rebuild(node, rebuilt) : node;
+    replaced.put(node, result);
+    return result;
+  }
+
+  /**
+   * @return A copy of the node with the given children, in the order of DAGNodes.children.
+   */
+  private static DAGNode rebuild(DAGNode node, DAGNode[] children) {
+    if (node instanceof DAGMulti) return new DAGMulti(children);
+    if (node instanceof DAGBracketAssignment) {
+      return new DAGBracketAssignment((DAGVariable) children[0], (DAGExpression) children[2],
+                                      (DAGExpression) children[1]);
+    }
+    if (node instanceof DAGAssignment) {
+      return new DAGAssignment(((DAGAssignment) node).assignVariable, (DAGExpression) children[0]);
+    }
+    if (node instanceof DAGIfElse) {
+      return new DAGIfElse(new DAGCondition((DAGExpression) children[0]), children[1], children[2]);
+    }
+    if (node instanceof DAGWhile) {
+      return new DAGWhile(new DAGCondition((DAGExpression) children[0]), children[1]);
+    }
+    if (node instanceof DAGReturnExpression) {
+      return new DAGReturnExpression((DAGExpression) children[0]);
+    }
+    if (node instanceof DAGBinaryOp) {
+      return new DAGBinaryOp(((DAGBinaryOp) node).op, (DAGExpression) children[0],
+                             (DAGExpression) children[1]);
+    }
+    if (node instanceof DAGBracket) {
+      return new DAGBracket((DAGExpression) children[0], (DAGExpression) children[1]);
+    }
+    if (node instanceof DAGLength) return new DAGLength((DAGExpression) children[0]);
+    if (node instanceof DAGNot) return new DAGNot((DAGExpression) children[0]);
+    if (node instanceof DAGNewIntArray) return new DAGNewIntArray((DAGExpression) children[0]);
+    if (node instanceof DAGMethodCall) {
+      DAGMethodCall call = (DAGMethodCall) node;
+      DAGExpression[] arguments = arguments(children, 1);
+      if (call.callable == null) {
+        return new DAGMethodCall((DAGExpression) children[0], call.methodName, call.original,
+                                 arguments);
+      }
+      return new DAGMethodCall((DAGExpression) children[0], call.methodName, call.original,
+                               call.callable, arguments);
+    }
+    if (node instanceof DAGStaticCall) {
+      DAGStaticCall call = (DAGStaticCall) node;
+      DAGExpression[] arguments = arguments(children, 0);
+      if (call.callable == null) {
+        return new DAGStaticCall(call.classDescriptor, call.methodName, call.original, arguments);
+      }
+      return new DAGStaticCall(call.methodName, call.original, call.callable, arguments);
+    }
+    throw new AssertionError("Cannot rebuild " + node.getClass().getSimpleName());
+  }
+
+  private static DAGExpression[] arguments(DAGNode[] children, int from) {
+    DAGExpression[] arguments = new DAGExpression[children.length - from];
+    for (int i = 0; i < arguments.length; ++i) {
+      arguments[i] = (DAGExpression) children[from + i];
+    }
+    return arguments;
+  }
+}
@@ -3,6 +3,8 @@ package compiler.dag;
 import static compiler.symbols.PrimitiveDescriptor.booleanDescriptor;
 import static jjt.jmmTreeConstants.JJTASSIGNMENT;
 import static jjt.jmmTreeConstants.JJTBLOCKSTATEMENT;
+import static jjt.jmmTreeConstants.JJTCALL;
+import static jjt.jmmTreeConstants.JJTIDENTIFIER;
 import static jjt.jmmTreeConstants.JJTIFELSESTATEMENT;
 import static jjt.jmmTreeConstants.JJTMAINDECLARATION;
 import static jjt.jmmTreeConstants.JJTMETHODDECLARATION;
@@ -16,11 +18,14 @@ import compiler.modules.CompilationStatus;
 import compiler.modules.Utils;
 import compiler.symbols.FunctionLocals;
 import compiler.symbols.TypeDescriptor;
+import compiler.symbols.VariableDescriptor;
 import jjt.SimpleNode;
 
 public class NodeFactory extends BaseDAGFactory {
-  public NodeFactory(FunctionLocals locals, CompilationStatus tracker) {
-    super(locals, tracker);
+  private final ValueTable values = new ValueTable();
+
+  public NodeFactory(FunctionLocals locals, CompilationStatus tracker, boolean optimize) {
+    super(locals, tracker, optimize);
   }
 
   /**
@@ -97,9 +102,9 @@ public class NodeFactory extends BaseDAGFactory {
     SimpleNode childNode = node.jjtGetChild(0);
 
     if (childNode.is(JJTASSIGNMENT)) {
-      return new AssignmentFactory(locals, this).build(childNode);
+      return new AssignmentFactory(locals, this, values, optimize).build(childNode);
     } else {
-      return new ExpressionFactory(locals, this).buildStatement(childNode);
+      return new ExpressionFactory(locals, this, values, optimize).buildStatement(childNode);
     }
   }
 
@@ -116,13 +121,40 @@ public class NodeFactory extends BaseDAGFactory {
     SimpleNode conditionNode = node.jjtGetChild(0);
     SimpleNode bodyNode = node.jjtGetChild(1);
 
-    DAGExpression condition = new ExpressionFactory(locals, this)
+    // The condition is also reached from the end of the body: kill what the loop may change.
+    killChangedIn(node);
+
+    DAGExpression condition = new ExpressionFactory(locals, this, values, optimize)
                                   .build(conditionNode, booleanDescriptor);
+    int scope = values.open();
     DAGNode loopBody = build(bodyNode);
+    values.close(scope);
 
     return new DAGWhile(new DAGCondition(condition), loopBody);
   }
 
+  /**
+   * Kills, in the table of expressions, the variables assigned below the node, and the memory if
+   * an array element is stored or a method called there.
+   */
+  private void killChangedIn(SimpleNode node) {
+    if (node.is(JJTASSIGNMENT)) {
+      SimpleNode targetNode = node.jjtGetChild(0);
+      if (targetNode.is(JJTIDENTIFIER)) {
+        VariableDescriptor var = locals.resolve(targetNode.jjtGetVal());
+        if (var != null) values.assigned(var);
+      } else {
+        values.memoryChanged();
+      }
+    } else if (node.is(JJTCALL)) {
+      values.memoryChanged();
+    }
+
+    for (int i = 0; i < node.jjtGetNumChildren(); ++i) {
+      killChangedIn(node.jjtGetChild(i));
+    }
+  }
+
   /**
    * Build a DAGIfElse for an IfElseStatement SimpleNode. This node contains a condition
    * DAGExpression node, a DAGNode for the true branch (then branch), and a DAGNode for the false
@@ -138,10 +170,14 @@ public class NodeFactory extends BaseDAGFactory {
     SimpleNode thenNode = node.jjtGetChild(1);
     SimpleNode elseNode = node.jjtGetChild(2);
 
-    DAGExpression condition = new ExpressionFactory(locals, this)
+    DAGExpression condition = new ExpressionFactory(locals, this, values, optimize)
                                   .build(conditionNode, booleanDescriptor);
+    int scope = values.open();
     DAGNode thenBody = build(thenNode);
+    values.close(scope);
+    scope = values.open();
     DAGNode elseBody = build(elseNode);
+    values.close(scope);
 
     return new DAGIfElse(new DAGCondition(condition), thenBody, elseBody);
   }
@@ -179,7 +215,7 @@ public class NodeFactory extends BaseDAGFactory {
 
     TypeDescriptor expected = locals.getFunction().getReturnType();
 
-    DAGExpression returned = new ExpressionFactory(locals, this).build(expressionNode, expected);
+    DAGExpression returned = new ExpressionFactory(locals, this, values, optimize).build(expressionNode, expected);
 
     return new DAGReturnExpression(returned);
   }
@@ -0,0 +1,157 @@
+package compiler.dag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+
+import compiler.symbols.VariableDescriptor;
+
+/**
+ * The expressions already built in a method body, and still valid where the body is being built,
+ * for the common subexpression elimination of ExpressionOptimizer to hand them out again.
+ *
+ * The table is shared by all the statements of the method. Every variable, and the memory as a
+ * whole (array elements and fields), has a version, which an assignment to the variable, a store
+ * into an array or a call moves on; an expression recorded is only valid while the versions of
+ * everything it reads stay those it was built with. So a kill takes constant time, and stale
+ * expressions are dropped as they are looked up.
+ *
+ * The bodies of an if/else and of a while loop are built in a scope of their own: the expressions
+ * they record are forgotten at the end of the scope, as they were not computed on every path to
+ * the code which follows, while whatever they kill stays killed.
+ */
+final class ValueTable {
+  /**
+   * An expression, with the versions of what it reads when it was recorded.
+   */
+  private static final class Entry {
+    final DAGExpression expression;
+    final VariableDescriptor[] variables;
+    final int[] versions;
+    final int memory;
+
+    Entry(DAGExpression expression, VariableDescriptor[] variables, int[] versions, int memory) {
+      this.expression = expression;
+      this.variables = variables;
+      this.versions = versions;
+      this.memory = memory;
+    }
+  }
+
+  /**
+   * What an expression reads: variables, and whether it reads memory.
+   */
+  private static final class Reads {
+    final VariableDescriptor[] variables;
+    final boolean memory;
+
+    Reads(VariableDescriptor[] variables, boolean memory) {
+      this.variables = variables;
+      this.memory = memory;
+    }
+  }
+
+  private final HashMap<DAGExpression, Entry> entries = new HashMap<>();
+  private final IdentityHashMap<DAGExpression, Reads> reads = new IdentityHashMap<>();
+  private final HashMap<VariableDescriptor, Integer> versions = new HashMap<>();
+  private int memory = 0;
+
+  // The expressions recorded in the open scopes, with the entries they replaced, to be undone.
+  private final ArrayList<DAGExpression> journal = new ArrayList<>();
+  private final ArrayList<Entry> replaced = new ArrayList<>();
+  private int scopes = 0;
+
+  /**
+   * @return The expression equal to the given one built before, if it is still valid; or the
+   *     given expression, which is recorded, otherwise.
+   */
+  DAGExpression reuse(DAGExpression expression) {
+    Entry entry = entries.get(expression);
+    if (entry != null && isValid(entry)) return entry.expression;
+
+    if (scopes > 0) {
+      journal.add(expression);
+      replaced.add(entry);
+    }
+    entries.put(expression, record(expression));
+    return expression;
+  }
+
+  /**
+   * Kills the expressions which read the variable, once it is assigned.
+   */
+  void assigned(VariableDescriptor variable) {
+    versions.merge(variable, 1, Integer::sum);
+  }
+
+  /**
+   * Kills the expressions which read memory, once an array element is stored or a method called.
+   */
+  void memoryChanged() {
+    ++memory;
+  }
+
+  /**
+   * Opens a scope.
+   *
+   * @return A mark for closing the scope.
+   */
+  int open() {
+    ++scopes;
+    return journal.size();
+  }
+
+  /**
+   * Closes the scope opened at the given mark, forgetting the expressions recorded in it.
+   */
+  void close(int mark) {
+    for (int i = journal.size() - 1; i >= mark; --i) {
+      Entry entry = replaced.get(i);
+      if (entry == null) entries.remove(journal.get(i));
+      else entries.put(journal.get(i), entry);
+    }
+    journal.subList(mark, journal.size()).clear();
+    replaced.subList(mark, replaced.size()).clear();
+    --scopes;
+  }
+
+  private boolean isValid(Entry entry) {
+    if (entry.memory >= 0 && entry.memory != memory) return false;
+    for (int i = 0; i < entry.variables.length; ++i) {
+      if (version(entry.variables[i]) != entry.versions[i]) return false;
+    }
+    return true;
+  }
+
+  private int version(VariableDescriptor variable) {
+    return versions.getOrDefault(variable, 0);
+  }
+
+  private Entry record(DAGExpression expression) {
+    Reads read = readsOf(expression);
+    int[] current = new int[read.variables.length];
+    for (int i = 0; i < current.length; ++i) current[i] = version(read.variables[i]);
+    return new Entry(expression, read.variables, current, read.memory ? memory : -1);
+  }
+
+  private Reads readsOf(DAGExpression expression) {
+    Reads read = reads.get(expression);
+    if (read != null) return read;
+
+    LinkedHashSet<VariableDescriptor> variables = new LinkedHashSet<>();
+    boolean memory = expression instanceof DAGBracket || expression instanceof DAGMember;
+    if (expression instanceof DAGVariable && ((DAGVariable) expression).getVariable() != null) {
+      variables.add(((DAGVariable) expression).getVariable());
+    }
+    for (DAGNode child : DAGNodes.children(expression)) {
+      Reads childRead = readsOf((DAGExpression) child);
+      for (VariableDescriptor variable : childRead.variables) variables.add(variable);
+      memory |= childRead.memory;
+    }
+
+    read = new Reads(variables.toArray(new VariableDescriptor[0]), memory);
+    reads.put(expression, read);
+    return read;
+  }
+}
@@ -0,0 +1,130 @@
+package compiler.dag.flow;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+import compiler.dag.DAGAssignment;
+import compiler.dag.DAGBinaryOp;
+import compiler.dag.DAGBracket;
+import compiler.dag.DAGBracketAssignment;
+import compiler.dag.DAGCall;
+import compiler.dag.DAGExpression;
+import compiler.dag.DAGLength;
+import compiler.dag.DAGMember;
+import compiler.dag.DAGNew;
+import compiler.dag.DAGNode;
+import compiler.dag.DAGNodes;
+import compiler.dag.DAGNot;
+import compiler.symbols.VariableDescriptor;
+
+/**
+ * The expressions available at each point of a method body: computed on every path to it, with
+ * nothing they read changed since. A forward must analysis.
+ *
+ * The expressions followed are the operations (binary operations, negations, array lengths and
+ * array accesses) without calls or allocations in them; equal expressions are one. An expression
+ * is killed by an assignment to a variable it reads. One which reads an array element is also
+ * killed by any store into an array, and one which reads a field by any assignment to a field;
+ * both are killed by any call, which may change either.
+ */
+public final class AvailableExpressions extends DataflowAnalysis {
+  private final Variables variables;
+  private final ArrayList<DAGExpression> expressions = new ArrayList<>();
+  private final HashMap<DAGExpression, Integer> indexes = new HashMap<>();
+  private final BitSet[] readersOf;
+  private final BitSet arrayReaders = new BitSet();
+  private final BitSet fieldReaders = new BitSet();
+
+  public AvailableExpressions(ControlFlowGraph graph, Variables variables) {
+    super(graph, true, false);
+    this.variables = variables;
+    this.readersOf = new BitSet[variables.size()];
+    for (int i = 0; i < readersOf.length; ++i) readersOf[i] = new BitSet();
+
+    for (BasicBlock block : graph.getBlocks()) {
+      for (DAGNode node : block.getNodes()) collect(node);
+    }
+  }
+
+  /**
+   * Numbers the expressions followed below the node.
+   *
+   * @return Whether the node may be part of an expression followed: it has no calls or
+   *     allocations.
+   */
+  private boolean collect(DAGNode node) {
+    boolean pure = !(node instanceof DAGCall || node instanceof DAGNew);
+    for (DAGNode child : DAGNodes.children(node)) {
+      if (child instanceof DAGExpression) pure &= collect(child);
+    }
+    if (!pure || !isOperation(node) || indexes.containsKey(node)) return pure;
+
+    DAGExpression expression = (DAGExpression) node;
+    int index = expressions.size();
+    indexes.put(expression, index);
+    expressions.add(expression);
+    Variables.forEachRead(expression, variable -> readersOf[variables.indexOf(variable.getVariable())].set(index));
+    if (reads(expression, DAGBracket.class)) arrayReaders.set(index);
+    if (reads(expression, DAGMember.class)) fieldReaders.set(index);
+    return true;
+  }
+
+  private static boolean isOperation(DAGNode node) {
+    return node instanceof DAGBinaryOp || node instanceof DAGNot || node instanceof DAGLength
+        || node instanceof DAGBracket;
+  }
+
+  private static boolean reads(DAGNode node, Class<? extends DAGNode> kind) {
+    if (kind.isInstance(node)) return true;
+    for (DAGNode child : DAGNodes.children(node)) {
+      if (child instanceof DAGExpression && reads(child, kind)) return true;
+    }
+    return false;
+  }
+
+  @Override
+  protected int size() {
+    return expressions.size();
+  }
+
+  @Override
+  protected void effect(DAGNode node, BitSet gen, BitSet kill) {
+    evaluated(node, gen);
+
+    VariableDescriptor assigned = Variables.assigned(node);
+    if (assigned != null) kill.or(readersOf[variables.indexOf(assigned)]);
+    if (node instanceof DAGBracketAssignment) kill.or(arrayReaders);
+    else if (node instanceof DAGAssignment && ((DAGAssignment) node).getVariable() instanceof DAGMember)
+      kill.or(fieldReaders);
+    if (reads(node, DAGCall.class)) {
+      kill.or(arrayReaders);
+      kill.or(fieldReaders);
+    }
+    gen.andNot(kill);
+  }
+
+  private void evaluated(DAGNode node, BitSet gen) {
+    Integer index = node instanceof DAGExpression ? indexes.get(node) : null;
+    if (index != null) gen.set(index);
+    for (DAGNode child : DAGNodes.children(node)) {
+      if (child instanceof DAGExpression) evaluated(child, gen);
+    }
+  }
+
+  /**
+   * @return The expressions, by number.
+   */
+  public List<DAGExpression> getExpressions() {
+    return expressions;
+  }
+
+  /**
+   * @return The number of the expression, or -1 if it is not followed.
+   */
+  public int indexOf(DAGExpression expression) {
+    Integer index = indexes.get(expression);
+    return index == null ? -1 : index;
+  }
+}
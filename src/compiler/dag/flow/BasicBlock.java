@@ -0,0 +1,99 @@
+package compiler.dag.flow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import compiler.dag.DAGExpression;
+import compiler.dag.DAGNode;
+
+/**
+ * A straight line sequence of statements of a method body, entered at the top and left at the
+ * bottom.
+ *
+ * The nodes of a block are its statements (assignments, expression statements and returns), in
+ * order, followed by the condition of the branch which ends the block, if any. A block which ends
+ * in a branch has two successors: the first is taken when the condition holds, the second when it
+ * does not.
+ */
+public final class BasicBlock {
+  private final int index;
+  private final ArrayList<DAGNode> nodes = new ArrayList<>();
+  private final ArrayList<BasicBlock> successors = new ArrayList<>(2);
+  private final ArrayList<BasicBlock> predecessors = new ArrayList<>(2);
+  private DAGExpression condition = null;
+  int order = -1;
+
+  BasicBlock(int index) {
+    this.index = index;
+  }
+
+  /**
+   * @return The position of the block in its graph's list of blocks.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * @return The position of the block in the reverse postorder of its graph, or -1 if the block is
+   *     unreachable.
+   */
+  public int getOrder() {
+    return order;
+  }
+
+  public boolean isReachable() {
+    return order >= 0;
+  }
+
+  /**
+   * @return The statements of the block, followed by its condition, if it ends in a branch.
+   */
+  public List<DAGNode> getNodes() {
+    return Collections.unmodifiableList(nodes);
+  }
+
+  /**
+   * @return The condition of the branch which ends the block, or null if the block goes on to a
+   *     single successor.
+   */
+  public DAGExpression getCondition() {
+    return condition;
+  }
+
+  public List<BasicBlock> getSuccessors() {
+    return Collections.unmodifiableList(successors);
+  }
+
+  public List<BasicBlock> getPredecessors() {
+    return Collections.unmodifiableList(predecessors);
+  }
+
+  void add(DAGNode node) {
+    assert condition == null;
+    nodes.add(node);
+  }
+
+  void branch(DAGExpression condition, BasicBlock whenTrue, BasicBlock whenFalse) {
+    assert this.condition == null && successors.isEmpty();
+    this.condition = condition;
+    nodes.add(condition);
+    jump(whenTrue);
+    jump(whenFalse);
+  }
+
+  void jump(BasicBlock successor) {
+    successors.add(successor);
+    successor.predecessors.add(this);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("B" + index + ":");
+    for (DAGNode node : nodes) builder.append("\n  ").append(node.toString().replaceAll("\n", "\n  "));
+    builder.append("\n  ->");
+    for (BasicBlock successor : successors) builder.append(" B").append(successor.index);
+    return builder.toString();
+  }
+}
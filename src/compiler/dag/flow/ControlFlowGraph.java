@@ -0,0 +1,164 @@
+package compiler.dag.flow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import compiler.dag.DAGAssignment;
+import compiler.dag.DAGExpression;
+import compiler.dag.DAGIfElse;
+import compiler.dag.DAGMulti;
+import compiler.dag.DAGNode;
+import compiler.dag.DAGReturn;
+import compiler.dag.DAGWhile;
+
+/**
+ * The control flow graph of a method body, made of basic blocks.
+ *
+ * The graph has a single entry block, and a single, empty, exit block, which every return and the
+ * end of the body go to. An if/else ends the current block in a branch to the blocks of its two
+ * bodies, which join in a new block. A while loop has a block of its own for the condition, which
+ * branches to the body, whose end jumps back to the condition, or past the loop. The statements
+ * after a return go to a new block with no predecessors, which is left out of the reverse
+ * postorder.
+ */
+public final class ControlFlowGraph {
+  private final ArrayList<BasicBlock> blocks = new ArrayList<>();
+  private final ArrayList<BasicBlock> order = new ArrayList<>();
+  private final BasicBlock entry;
+  private final BasicBlock exit;
+
+  private ControlFlowGraph(DAGMulti body) {
+    entry = newBlock();
+    exit = newBlock();
+    BasicBlock last = build(body, entry);
+    last.jump(exit);
+    number();
+  }
+
+  /**
+   * @return The control flow graph of the given method body.
+   */
+  public static ControlFlowGraph build(DAGMulti body) {
+    return new ControlFlowGraph(body);
+  }
+
+  public BasicBlock getEntry() {
+    return entry;
+  }
+
+  public BasicBlock getExit() {
+    return exit;
+  }
+
+  /**
+   * @return All the blocks, reachable or not, by index.
+   */
+  public List<BasicBlock> getBlocks() {
+    return Collections.unmodifiableList(blocks);
+  }
+
+  /**
+   * @return The reachable blocks, in reverse postorder: each block comes before its successors,
+   *     but for the back edges of loops.
+   */
+  public List<BasicBlock> reversePostorder() {
+    return Collections.unmodifiableList(order);
+  }
+
+  public int size() {
+    return blocks.size();
+  }
+
+  private BasicBlock newBlock() {
+    BasicBlock block = new BasicBlock(blocks.size());
+    blocks.add(block);
+    return block;
+  }
+
+  /**
+   * Adds the node to the graph, starting in the current block.
+   *
+   * @return The block in which the code after the node goes on.
+   */
+  private BasicBlock build(DAGNode node, BasicBlock current) {
+    if (node instanceof DAGMulti) {
+      for (DAGNode child : ((DAGMulti) node).getNodes()) current = build(child, current);
+      return current;
+    }
+
+    if (node instanceof DAGIfElse) {
+      DAGIfElse ifElse = (DAGIfElse) node;
+      BasicBlock thenBlock = newBlock(), elseBlock = newBlock();
+      current.branch(ifElse.getCondition().getExpression(), thenBlock, elseBlock);
+      BasicBlock join = newBlock();
+      build(ifElse.getThenNode(), thenBlock).jump(join);
+      build(ifElse.getElseNode(), elseBlock).jump(join);
+      return join;
+    }
+
+    if (node instanceof DAGWhile) {
+      DAGWhile loop = (DAGWhile) node;
+      BasicBlock header = newBlock(), bodyBlock = newBlock(), after = newBlock();
+      current.jump(header);
+      header.branch(loop.getCondition().getExpression(), bodyBlock, after);
+      build(loop.getBody(), bodyBlock).jump(header);
+      return after;
+    }
+
+    if (node instanceof DAGReturn) {
+      current.add(node);
+      current.jump(exit);
+      return newBlock();
+    }
+
+    assert node instanceof DAGExpression || node instanceof DAGAssignment;
+    current.add(node);
+    return current;
+  }
+
+  /**
+   * Numbers the reachable blocks in reverse postorder, by an iterative depth first search.
+   */
+  private void number() {
+    boolean[] visited = new boolean[blocks.size()];
+    ArrayList<BasicBlock> postorder = new ArrayList<>(blocks.size());
+    ArrayList<BasicBlock> stack = new ArrayList<>();
+    ArrayList<Integer> next = new ArrayList<>();
+
+    stack.add(entry);
+    next.add(0);
+    visited[entry.getIndex()] = true;
+    while (!stack.isEmpty()) {
+      int top = stack.size() - 1;
+      BasicBlock block = stack.get(top);
+      int successor = next.get(top);
+      if (successor < block.getSuccessors().size()) {
+        next.set(top, successor + 1);
+        BasicBlock target = block.getSuccessors().get(successor);
+        if (!visited[target.getIndex()]) {
+          visited[target.getIndex()] = true;
+          stack.add(target);
+          next.add(0);
+        }
+      } else {
+        postorder.add(block);
+        stack.remove(top);
+        next.remove(top);
+      }
+    }
+
+    for (int i = postorder.size() - 1; i >= 0; --i) {
+      BasicBlock block = postorder.get(i);
+      block.order = order.size();
+      order.add(block);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (BasicBlock block : order) builder.append(block).append('\n');
+    return builder.toString();
+  }
+}
@@ -0,0 +1,180 @@
+package compiler.dag.flow;
+
+import java.util.BitSet;
+import java.util.List;
+
+import compiler.dag.DAGNode;
+
+/**
+ * A dataflow problem over the bit vectors of a control flow graph, and its solution.
+ *
+ * An analysis gives the effect of each node as the bits it generates and those it kills, and the
+ * solver composes them into the effect of each block. The value of a block is then the meet (union
+ * or intersection) of the values of its predecessors, for a forward analysis, or of its
+ * successors, for a backward one. The blocks are visited from a worklist in reverse postorder, or
+ * in postorder for a backward analysis, so that most values are final after the first pass, and
+ * the loops take a pass or two more: the time is about linear in the size of the graph.
+ */
+public abstract class DataflowAnalysis {
+  protected final ControlFlowGraph graph;
+  private final boolean forward;
+  private final boolean union;
+  private BitSet[] gen, kill, in, out;
+
+  /**
+   * @param graph   The graph to be analysed.
+   * @param forward Whether values flow from the entry to the exit, rather than backward.
+   * @param union   Whether values meet by union (a may analysis), rather than intersection (a must
+   *                analysis).
+   */
+  protected DataflowAnalysis(ControlFlowGraph graph, boolean forward, boolean union) {
+    this.graph = graph;
+    this.forward = forward;
+    this.union = union;
+  }
+
+  /**
+   * @return The number of bits of the values.
+   */
+  protected abstract int size();
+
+  /**
+   * Adds the bits generated and killed by a node.
+   */
+  protected abstract void effect(DAGNode node, BitSet gen, BitSet kill);
+
+  /**
+   * @return The value at the entry of the graph for a forward analysis, or at the exit for a
+   *     backward one. None by default.
+   */
+  protected BitSet boundary() {
+    return new BitSet(size());
+  }
+
+  /**
+   * Applies the effect of a single node to a value, as a pass walking a block node by node does.
+   */
+  public void apply(DAGNode node, BitSet value) {
+    BitSet nodeGen = new BitSet(), nodeKill = new BitSet();
+    effect(node, nodeGen, nodeKill);
+    value.andNot(nodeKill);
+    value.or(nodeGen);
+  }
+
+  /**
+   * Solves the analysis over the whole graph.
+   *
+   * @return This analysis.
+   */
+  public DataflowAnalysis solve() {
+    int blocks = graph.size(), size = size();
+    gen = new BitSet[blocks];
+    kill = new BitSet[blocks];
+    in = new BitSet[blocks];
+    out = new BitSet[blocks];
+
+    for (BasicBlock block : graph.getBlocks()) {
+      int i = block.getIndex();
+      gen[i] = new BitSet(size);
+      kill[i] = new BitSet(size);
+      compose(block);
+      BitSet initial = new BitSet(size);
+      if (!union) initial.set(0, size);
+      in[i] = initial;
+      out[i] = (BitSet) initial.clone();
+    }
+
+    // The worklist holds the positions in the visiting order of the blocks to be recomputed.
+    List<BasicBlock> order = graph.reversePostorder();
+    int n = order.size();
+    BitSet pending = new BitSet(n);
+    pending.set(0, n);
+    BasicBlock start = forward ? graph.getEntry() : graph.getExit();
+
+    int position = pending.nextSetBit(0);
+    while (position >= 0) {
+      pending.clear(position);
+      BasicBlock block = order.get(forward ? position : n - 1 - position);
+      int i = block.getIndex();
+
+      BitSet value;
+      if (block == start) {
+        value = boundary();
+      } else {
+        value = null;
+        for (BasicBlock neighbor : forward ? block.getPredecessors() : block.getSuccessors()) {
+          if (!neighbor.isReachable()) continue;
+          BitSet other = forward ? out[neighbor.getIndex()] : in[neighbor.getIndex()];
+          if (value == null) value = (BitSet) other.clone();
+          else if (union) value.or(other);
+          else value.and(other);
+        }
+        if (value == null) value = new BitSet(size);
+      }
+
+      BitSet result = (BitSet) value.clone();
+      result.andNot(kill[i]);
+      result.or(gen[i]);
+
+      if (forward) {
+        in[i] = value;
+        if (result.equals(out[i])) {
+          position = pending.nextSetBit(position + 1);
+          continue;
+        }
+        out[i] = result;
+      } else {
+        out[i] = value;
+        if (result.equals(in[i])) {
+          position = pending.nextSetBit(position + 1);
+          continue;
+        }
+        in[i] = result;
+      }
+
+      // Revisit the blocks the new value flows to, from the earliest in the order.
+      int earliest = Integer.MAX_VALUE;
+      for (BasicBlock neighbor : forward ? block.getSuccessors() : block.getPredecessors()) {
+        if (!neighbor.isReachable()) continue;
+        int at = forward ? neighbor.getOrder() : n - 1 - neighbor.getOrder();
+        pending.set(at);
+        earliest = Math.min(earliest, at);
+      }
+      position = pending.nextSetBit(Math.min(earliest, position + 1));
+    }
+    return this;
+  }
+
+  /**
+   * Composes the effects of the nodes of the block into the effect of the block.
+   */
+  private void compose(BasicBlock block) {
+    BitSet blockGen = gen[block.getIndex()], blockKill = kill[block.getIndex()];
+    List<DAGNode> nodes = block.getNodes();
+    BitSet nodeGen = new BitSet(), nodeKill = new BitSet();
+    for (int k = 0; k < nodes.size(); ++k) {
+      DAGNode node = nodes.get(forward ? k : nodes.size() - 1 - k);
+      nodeGen.clear();
+      nodeKill.clear();
+      effect(node, nodeGen, nodeKill);
+      blockGen.andNot(nodeKill);
+      blockGen.or(nodeGen);
+      blockKill.or(nodeKill);
+      blockKill.andNot(nodeGen);
+    }
+  }
+
+  /**
+   * @return The value at the top of the block. Unreachable blocks have the initial value.
+   */
+  public BitSet in(BasicBlock block) {
+    return (BitSet) in[block.getIndex()].clone();
+  }
+
+  /**
+   * @return The value at the bottom of the block.
+   */
+  public BitSet out(BasicBlock block) {
+    return (BitSet) out[block.getIndex()].clone();
+  }
+}
@@ -0,0 +1,61 @@
+package compiler.dag.flow;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import compiler.dag.DAGNode;
+import compiler.dag.DAGVariable;
+import compiler.symbols.ParameterDescriptor;
+import compiler.symbols.VariableDescriptor;
+
+/**
+ * The local variables definitely assigned at each point of a method body, along every path from
+ * its entry. A forward must analysis; the parameters are assigned on entry.
+ */
+public final class DefiniteAssignment extends DataflowAnalysis {
+  private final Variables variables;
+
+  public DefiniteAssignment(ControlFlowGraph graph, Variables variables) {
+    super(graph, true, false);
+    this.variables = variables;
+  }
+
+  @Override
+  protected int size() {
+    return variables.size();
+  }
+
+  @Override
+  protected void effect(DAGNode node, BitSet gen, BitSet kill) {
+    VariableDescriptor assigned = Variables.assigned(node);
+    if (assigned != null) gen.set(variables.indexOf(assigned));
+  }
+
+  @Override
+  protected BitSet boundary() {
+    BitSet parameters = new BitSet(size());
+    for (int i = 0; i < variables.size(); ++i) {
+      if (variables.get(i) instanceof ParameterDescriptor) parameters.set(i);
+    }
+    return parameters;
+  }
+
+  /**
+   * @return The reads, in reachable code, of local variables which may not have been assigned.
+   *     The analysis must have been solved.
+   */
+  public List<DAGVariable> unassignedReads() {
+    ArrayList<DAGVariable> reads = new ArrayList<>();
+    for (BasicBlock block : graph.reversePostorder()) {
+      BitSet assigned = in(block);
+      for (DAGNode node : block.getNodes()) {
+        Variables.forEachRead(node, variable -> {
+          if (!assigned.get(variables.indexOf(variable.getVariable()))) reads.add(variable);
+        });
+        apply(node, assigned);
+      }
+    }
+    return reads;
+  }
+}
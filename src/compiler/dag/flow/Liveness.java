@@ -0,0 +1,36 @@
+package compiler.dag.flow;
+
+import java.util.BitSet;
+
+import compiler.dag.DAGNode;
+import compiler.symbols.VariableDescriptor;
+
+/**
+ * The local variables and parameters live at each point of a method body: those whose value may
+ * yet be read before they are assigned again. A backward may analysis.
+ */
+public final class Liveness extends DataflowAnalysis {
+  private final Variables variables;
+
+  public Liveness(ControlFlowGraph graph, Variables variables) {
+    super(graph, false, true);
+    this.variables = variables;
+  }
+
+  @Override
+  protected int size() {
+    return variables.size();
+  }
+
+  @Override
+  protected void effect(DAGNode node, BitSet gen, BitSet kill) {
+    // The value assigned is computed before the variable is assigned, so a read wins.
+    VariableDescriptor assigned = Variables.assigned(node);
+    if (assigned != null) kill.set(variables.indexOf(assigned));
+    Variables.forEachRead(node, variable -> gen.set(variables.indexOf(variable.getVariable())));
+  }
+
+  public Variables getVariables() {
+    return variables;
+  }
+}
@@ -0,0 +1,68 @@
+package compiler.dag.flow;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import compiler.dag.DAGAssignment;
+import compiler.dag.DAGNode;
+import compiler.symbols.VariableDescriptor;
+
+/**
+ * The assignments to local variables and parameters which may reach each point of a method body
+ * without the variable being assigned again on the way. A forward may analysis. The values the
+ * parameters have on entry are not definitions: a variable no definition reaches still holds its
+ * value from the entry.
+ */
+public final class ReachingDefinitions extends DataflowAnalysis {
+  private final Variables variables;
+  private final ArrayList<DAGAssignment> definitions = new ArrayList<>();
+  private final IdentityHashMap<DAGNode, Integer> indexes = new IdentityHashMap<>();
+  private final BitSet[] definitionsOf;
+
+  public ReachingDefinitions(ControlFlowGraph graph, Variables variables) {
+    super(graph, true, true);
+    this.variables = variables;
+    this.definitionsOf = new BitSet[variables.size()];
+    for (int i = 0; i < definitionsOf.length; ++i) definitionsOf[i] = new BitSet();
+
+    for (BasicBlock block : graph.getBlocks()) {
+      for (DAGNode node : block.getNodes()) {
+        VariableDescriptor assigned = Variables.assigned(node);
+        if (assigned == null) continue;
+        indexes.put(node, definitions.size());
+        definitionsOf[variables.indexOf(assigned)].set(definitions.size());
+        definitions.add((DAGAssignment) node);
+      }
+    }
+  }
+
+  @Override
+  protected int size() {
+    return definitions.size();
+  }
+
+  @Override
+  protected void effect(DAGNode node, BitSet gen, BitSet kill) {
+    Integer index = indexes.get(node);
+    if (index == null) return;
+    kill.or(definitionsOf[variables.indexOf(Variables.assigned(node))]);
+    gen.set(index);
+  }
+
+  /**
+   * @return The definitions, by number.
+   */
+  public List<DAGAssignment> getDefinitions() {
+    return definitions;
+  }
+
+  /**
+   * @return The numbers of the definitions of the variable.
+   */
+  public BitSet definitionsOf(VariableDescriptor variable) {
+    int index = variables.indexOf(variable);
+    return index < 0 ? new BitSet() : (BitSet) definitionsOf[index].clone();
+  }
+}
@@ -0,0 +1,86 @@
+package compiler.dag.flow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+import compiler.dag.DAGAssignment;
+import compiler.dag.DAGBracketAssignment;
+import compiler.dag.DAGExpression;
+import compiler.dag.DAGLocal;
+import compiler.dag.DAGNode;
+import compiler.dag.DAGNodes;
+import compiler.dag.DAGParameter;
+import compiler.dag.DAGVariable;
+import compiler.symbols.VariableDescriptor;
+
+/**
+ * The local variables and parameters of a method body, numbered in the order they first appear in
+ * its graph, for the analyses to keep sets of them as bit vectors.
+ */
+public final class Variables {
+  private final HashMap<VariableDescriptor, Integer> indexes = new HashMap<>();
+  private final ArrayList<VariableDescriptor> variables = new ArrayList<>();
+
+  public Variables(ControlFlowGraph graph) {
+    for (BasicBlock block : graph.getBlocks()) {
+      for (DAGNode node : block.getNodes()) {
+        forEachRead(node, variable -> add(variable.getVariable()));
+        VariableDescriptor assigned = assigned(node);
+        if (assigned != null) add(assigned);
+      }
+    }
+  }
+
+  private void add(VariableDescriptor variable) {
+    if (indexes.putIfAbsent(variable, variables.size()) == null) variables.add(variable);
+  }
+
+  public int size() {
+    return variables.size();
+  }
+
+  /**
+   * @return The number of the variable, or -1 if it is not a local variable or parameter of the
+   *     body.
+   */
+  public int indexOf(VariableDescriptor variable) {
+    Integer index = indexes.get(variable);
+    return index == null ? -1 : index;
+  }
+
+  public VariableDescriptor get(int index) {
+    return variables.get(index);
+  }
+
+  /**
+   * @return Whether the node is a local variable or parameter, the variables the analyses follow.
+   */
+  static boolean isLocal(DAGNode node) {
+    return node instanceof DAGLocal || node instanceof DAGParameter;
+  }
+
+  /**
+   * @return The local variable or parameter the statement assigns, or null if it assigns none. An
+   *     assignment to an element of an array reads the array variable, but does not assign it.
+   */
+  public static VariableDescriptor assigned(DAGNode node) {
+    if (!(node instanceof DAGAssignment) || node instanceof DAGBracketAssignment) return null;
+    DAGVariable variable = ((DAGAssignment) node).getVariable();
+    return isLocal(variable) ? variable.getVariable() : null;
+  }
+
+  /**
+   * Calls the action on each read of a local variable or parameter by the node, in evaluation
+   * order, and once for each time it is read.
+   */
+  public static void forEachRead(DAGNode node, Consumer<DAGVariable> action) {
+    if (isLocal(node)) {
+      action.accept((DAGVariable) node);
+      return;
+    }
+    for (DAGNode child : DAGNodes.children(node)) {
+      if (child instanceof DAGExpression) forEachRead(child, action);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package compiler.modules;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.Map;
+
+import compiler.codeGenerator.utils.ClassFileWriter;
+import compiler.exceptions.CompilationException;
+
+/**
+ * Assembles the generated Jasmin code of each class into a class file with the bundled Jasmin
+ * assembler, through its Java API, in the same JVM and without reading the .j file back.
+ *
+ * Each compilation has assemblers of its own, so classes compiled on different threads are
+ * assembled in parallel. Jasmin itself reports the errors it finds on the standard error.
+ */
+public class Assembler {
+
+  private final CompilationData data;
+
+  public Assembler(CompilationData data) {
+    this.data = data;
+  }
+
+  public void assemble() {
+    for (Map.Entry<String, String> entry : data.assembly.entrySet()) {
+      String className = entry.getKey();
+      byte[] classFile = assemble(className, entry.getValue());
+
+      if (data.inMemory()) {
+        data.classes.put(className, classFile);
+      } else {
+        ClassFileWriter writer = new ClassFileWriter(data.options.outputDirectory, className);
+        writer.writeFile(classFile);
+        data.outputs.add(writer.getFile());
+      }
+      if (data.stats != null) data.stats.count("classBytes", classFile.length);
+    }
+  }
+
+  private static byte[] assemble(String className, String assembly) {
+    try {
+      jasmin.ClassFile classFile = new jasmin.ClassFile();
+      classFile.readJasmin(new StringReader(assembly), className + ".j", false);
+      if (classFile.errorCount() > 0) {
+        throw new CompilationException("Jasmin found " + classFile.errorCount()
+                                       + " error(s) in the code of class " + className);
+      }
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(assembly.length() / 2);
+      classFile.write(bytes);
+      return bytes.toByteArray();
+    } catch (CompilationException e) {
+      throw e;
+    } catch (NoClassDefFoundError e) {
+      throw new CompilationException("The Jasmin assembler is not on the class path", e);
+    } catch (Exception e) {
+      throw new CompilationException("Could not assemble class " + className, e);
+    }
+  }
+}
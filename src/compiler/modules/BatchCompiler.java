@@ -0,0 +1,140 @@
+package compiler.modules;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import compiler.exceptions.CompilationException;
+
+/**
+ * Compiles many JMM source files at once, each one as an independent task of a work-stealing
+ * pool. The diagnostics of each file are buffered while it compiles and printed as a whole once it
+ * is done, in the order the files were given, so the output of different files never interleaves.
+ *
+ * The status of the batch is the worst status of its files.
+ */
+public final class BatchCompiler extends CompilationStatus {
+  private final List<File> sourcefiles;
+  private final CompilationOptions options;
+  private final int jobs;
+  private final PrintStream err;
+  private int failures = 0;
+
+  /**
+   * @param sourcefiles The JMM source files.
+   * @param options     The options of every compilation.
+   * @param jobs        The maximum number of files compiled at the same time.
+   * @param err         Where the diagnostics of all files are written to.
+   */
+  public BatchCompiler(List<File> sourcefiles, CompilationOptions options, int jobs,
+                       PrintStream err) {
+    this.sourcefiles = sourcefiles;
+    this.options = options;
+    this.jobs = jobs;
+    this.err = err;
+  }
+
+  /**
+   * Collect the JMM source files named by the given paths: a file stands for itself, and a
+   * directory for all the .jmm files inside it, recursively, in lexicographic order.
+   */
+  public static List<File> collect(List<File> paths) throws IOException {
+    ArrayList<File> files = new ArrayList<>();
+    for (File file : paths) {
+      if (!file.isDirectory()) {
+        files.add(file);
+        continue;
+      }
+
+      try (Stream<Path> walk = Files.walk(file.toPath())) {
+        files.addAll(walk.filter(p -> p.toString().endsWith(".jmm"))
+                         .filter(Files::isRegularFile)
+                         .sorted()
+                         .map(Path::toFile)
+                         .collect(Collectors.toList()));
+      }
+    }
+    return files;
+  }
+
+  public BatchCompiler compile() {
+    ForkJoinPool pool = new ForkJoinPool(jobs);
+    try {
+      ArrayList<ForkJoinTask<Result>> tasks = new ArrayList<>();
+      for (File sourcefile : sourcefiles) {
+        tasks.add(pool.submit(() -> compile(sourcefile, options)));
+      }
+
+      for (ForkJoinTask<Result> task : tasks) {
+        Result result = join(task);
+        err.print(result.diagnostics);
+        update(result.status);
+        if (result.status >= Codes.MINOR_ERRORS) ++failures;
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    err.println("Compiled " + sourcefiles.size() + " file(s), " + failures + " failed.");
+    return this;
+  }
+
+  /**
+   * @return The number of files which could not be compiled.
+   */
+  public int failures() {
+    return failures;
+  }
+
+  private static Result compile(File sourcefile, CompilationOptions options) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(buffer, true);
+    int status;
+
+    try {
+      status = new ClassCompiler(sourcefile, options, out).compile().status();
+    } catch (CompilationException e) {
+      out.println(sourcefile + ": " + e.getMessage());
+      status = Codes.FATAL;
+    } catch (RuntimeException e) {
+      // An internal error in one file must not take the rest of the batch down.
+      out.println("Internal compiler error while compiling " + sourcefile + ":");
+      e.printStackTrace(out);
+      status = Codes.FATAL;
+    }
+
+    out.flush();
+    return new Result(buffer.toString(), status);
+  }
+
+  private static Result join(ForkJoinTask<Result> task) {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CompilationException(e);
+    } catch (ExecutionException e) {
+      throw new CompilationException(e.getCause());
+    }
+  }
+
+  private static final class Result {
+    final String diagnostics;
+    final int status;
+
+    Result(String diagnostics, int status) {
+      this.diagnostics = diagnostics;
+      this.status = status;
+    }
+  }
+}
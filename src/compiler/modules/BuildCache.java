@@ -0,0 +1,171 @@
+package compiler.modules;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * An on-disk cache of the files generated by compilations, addressed by a hash of everything the
+ * output depends on: the source bytes, the compiler version and the options of the compilation.
+ *
+ * Each entry is a directory named by its key, holding a copy of the generated files. Entries are
+ * created under a temporary name and renamed into place, so that concurrent compilations (in a
+ * batch, or in the compile server) never see half of one.
+ *
+ * Only compilations without any diagnostics are stored, as a hit replays no diagnostics.
+ */
+public final class BuildCache {
+  /** Computed on the first use of the cache only, as it reads every class of the compiler. */
+  private static final class Version {
+    static final String HASH = compilerHash();
+  }
+
+  private final File directory;
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+
+  public BuildCache(File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return The key of the source file compiled with the given options, or null if the file, or
+   *         the classes of the compiler, cannot be read.
+   */
+  String key(File sourcefile, CompilationOptions options) {
+    if (Version.HASH == null) return null;
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update((Version.HASH + '\0' + options.fingerprint() + '\0')
+                        .getBytes(StandardCharsets.UTF_8));
+      digest.update(Files.readAllBytes(sourcefile.toPath()));
+      return hex(digest.digest());
+    } catch (IOException | NoSuchAlgorithmException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return A hash of the jar, or of every class file under the directory, the compiler was loaded
+   *         from, or null if they cannot be read.
+   */
+  private static String compilerHash() {
+    try {
+      CodeSource source = BuildCache.class.getProtectionDomain().getCodeSource();
+      if (source == null) return null;
+      Path location = Paths.get(source.getLocation().toURI());
+
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      if (!Files.isDirectory(location)) {
+        digest.update(Files.readAllBytes(location));
+        return hex(digest.digest());
+      }
+
+      try (Stream<Path> walk = Files.walk(location)) {
+        Iterator<Path> classes = walk.filter(path -> path.toString().endsWith(".class"))
+                                     .sorted().iterator();
+        while (classes.hasNext()) {
+          Path path = classes.next();
+          digest.update((location.relativize(path) + "\0").getBytes(StandardCharsets.UTF_8));
+          digest.update(Files.readAllBytes(path));
+        }
+      }
+      return hex(digest.digest());
+    } catch (IOException | NoSuchAlgorithmException | SecurityException
+             | URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static String hex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder();
+    for (byte b : bytes) hex.append(String.format("%02x", b));
+    return hex.toString();
+  }
+
+  /**
+   * Copy the files cached under the key to the output directory.
+   *
+   * @return true on a hit.
+   */
+  boolean restore(String key, File outputDirectory) {
+    File entry = new File(directory, key);
+    File[] files = entry.listFiles();
+    if (files == null) {
+      misses.incrementAndGet();
+      return false;
+    }
+
+    try {
+      outputDirectory.mkdirs();
+      for (File file : files) {
+        Files.copy(file.toPath(), new File(outputDirectory, file.getName()).toPath(),
+                   StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      // Fall back to compiling.
+      misses.incrementAndGet();
+      return false;
+    }
+
+    hits.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Cache the generated files under the key. The cache is only an optimization, so a failure to
+   * store an entry is ignored.
+   */
+  void store(String key, List<File> outputs) {
+    Path temporary = null;
+    try {
+      Files.createDirectories(directory.toPath());
+      temporary = Files.createTempDirectory(directory.toPath(), key + ".");
+      for (File output : outputs) {
+        Files.copy(output.toPath(), temporary.resolve(output.getName()));
+      }
+      Files.move(temporary, new File(directory, key).toPath());
+      temporary = null;
+    } catch (FileAlreadyExistsException e) {
+      // Someone else stored the same entry meanwhile.
+    } catch (IOException e) {
+      // Leave the entry out.
+    } finally {
+      if (temporary != null) delete(temporary);
+    }
+  }
+
+  private static void delete(Path path) {
+    try (Stream<Path> walk = Files.walk(path)) {
+      walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    } catch (IOException e) {
+    }
+  }
+
+  public int hits() {
+    return hits.get();
+  }
+
+  public int misses() {
+    return misses.get();
+  }
+
+  @Override
+  public String toString() {
+    return "Build cache: " + hits() + " hit(s), " + misses() + " miss(es).";
+  }
+}
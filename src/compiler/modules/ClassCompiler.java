@@ -6,68 +6,197 @@ import static jjt.jmmTreeConstants.JJTPROGRAM;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
 
 import compiler.exceptions.CompilationException;
+import compiler.symbols.TypeDescriptor;
 import jjt.ParseException;
 import jjt.SimpleNode;
 import jjt.jmm;
 
 public final class ClassCompiler extends CompilationStatus {
   private final File sourcefile;
+  private final String source;
   private final CompilationData data;
+  private final DiagnosticsHandler diagnostics;
+  private final PrintStream err;
 
   public ClassCompiler(File sourcefile) {
+    this(sourcefile, System.err);
+  }
+
+  /**
+   * @param sourcefile The JMM source file.
+   * @param err        Where the diagnostics of this compilation are written to.
+   */
+  public ClassCompiler(File sourcefile, PrintStream err) {
+    this(sourcefile, new CompilationOptions(), err);
+  }
+
+  /**
+   * @param sourcefile The JMM source file.
+   * @param options    The options of this compilation.
+   * @param err        Where the diagnostics of this compilation are written to.
+   */
+  public ClassCompiler(File sourcefile, CompilationOptions options, PrintStream err) {
     this.sourcefile = sourcefile;
-    this.data = new CompilationData(sourcefile);
+    this.source = null;
+    this.data = new CompilationData(sourcefile, options);
+    this.err = err;
 
     try {
-      DiagnosticsHandler.self = new DiagnosticsHandler(sourcefile);
+      this.diagnostics = new DiagnosticsHandler(sourcefile, err);
     } catch (IOException e) {
-      System.err.println("File " + sourcefile.getName() + " was not found.");
+      err.println("File " + sourcefile.getName() + " was not found.");
       throw new CompilationException(e.getMessage());
     }
   }
 
+  /**
+   * Compile a source held in memory. Nothing is read from or written to the filesystem: the
+   * generated code is kept by getAssembly(), and the build cache is not used.
+   *
+   * @param name    The name of the source in diagnostics, usually that of its file.
+   * @param source  The JMM source text.
+   * @param options The options of this compilation.
+   * @param err     Where the diagnostics of this compilation are written to.
+   */
+  public ClassCompiler(String name, String source, CompilationOptions options, PrintStream err) {
+    this.sourcefile = null;
+    this.source = source;
+    this.data = new CompilationData(null, name, options);
+    this.err = err;
+    this.diagnostics = new DiagnosticsHandler(name, source, err);
+  }
+
+  /**
+   * Compile the source file. The compilation state which is global to a thread (the diagnostics
+   * handler and the scope of types) belongs to this compilation until it returns, so different
+   * threads may compile different classes at the same time.
+   */
   public ClassCompiler compile() {
+    diagnostics.install();
+    TypeDescriptor.openScope();
     try {
-      parse();
+      BuildCache cache = data.inMemory() ? null : data.options.cache;
+      String key = cache != null ? cache.key(sourcefile, data.options) : null;
+      if (key != null) {
+        boolean[] hit = new boolean[1];
+        phase("cache", () -> hit[0] = cache.restore(key, data.options.outputDirectory));
+        if (hit[0]) return this;
+      }
+
+      phase("parse", this::parse);
       if (onErrorLevel(Codes.MAJOR_ERRORS)) return this;
 
-      buildSymbolTables();
+      phase("symbols", this::buildSymbolTables);
       if (onErrorLevel(Codes.MAJOR_ERRORS)) return this;
 
-      buildInternalRepresentations();
+      phase("dag", this::buildInternalRepresentations);
       if (onErrorLevel(Codes.MINOR_ERRORS)) return this;
 
-      generateCode();
+      phase("codegen", this::generateCode);
+      if (data.options.assemble && !data.options.classFiles) phase("assemble", this::assemble);
 
+      if (key != null && status() == Codes.OK) cache.store(key, data.outputs);
     } catch (CompilationException e) {
-      System.err.println(e.getMessage());
+      // Name the file, for the output of a batch to tell which one failed.
+      err.println(sourcefile != null ? sourcefile + ": " + e.getMessage() : e.getMessage());
+      recordFatalError(e);
       update(Codes.FATAL);
+    } finally {
+      TypeDescriptor.closeScope();
+      DiagnosticsHandler.uninstall();
+      if (data.stats != null) err.println(data.stats.format(data.options.stats));
     }
     return this;
   }
 
+  /**
+   * Run a phase of the compilation, measuring it if statistics were asked for.
+   */
+  private void phase(String name, Runnable work) {
+    if (data.stats == null) {
+      work.run();
+    } else {
+      data.stats.measure(name, work);
+    }
+  }
+
+  /**
+   * @return The JMM source file.
+   */
+  public File getSourcefile() {
+    return sourcefile;
+  }
+
+  /**
+   * @return The diagnostics of this compilation, in order.
+   */
+  public List<Diagnostic> getDiagnostics() {
+    return diagnostics.diagnostics();
+  }
+
+  /**
+   * @return The generated Jasmin code of each class, by class name, if the source is in memory.
+   */
+  public Map<String, String> getAssembly() {
+    return data.assembly;
+  }
+
+  /**
+   * @return The generated class file of each class, by class name, if the source is in memory and
+   *         class files or assembly were asked for.
+   */
+  public Map<String, byte[]> getClasses() {
+    return data.classes;
+  }
+
   /**
    * 1. Parse source file with JJT's generated parser.
    * * Parser.
    */
   private void parse() {
+    jmm parser = null;
     try {
-      SimpleNode rootNode = jmm.parseClass(sourcefile);
+      parser = source != null ? new jmm(source, data.name) : new jmm(sourcefile);
+      parser.setErrorStream(err);
+      SimpleNode rootNode = parser.parse();
+      recordSyntacticErrors(parser);
+      if (parser.hasErrors()) update(Codes.MAJOR_ERRORS);
       assert rootNode.is(JJTPROGRAM);
 
       SimpleNode classNode = rootNode.jjtGetChild(0);
       assert classNode.is(JJTCLASSDECLARATION);
 
       data.classNode = classNode;
+      if (data.stats != null) data.stats.count("astNodes", Utils.countNodes(rootNode));
     } catch (FileNotFoundException e) {
       throw new CompilationException(e);
     } catch (ParseException e) {
+      if (parser != null) recordSyntacticErrors(parser);
       throw new CompilationException("Parsing Error: " + e.getMessage(), e);
     }
   }
 
+  private void recordFatalError(CompilationException e) {
+    int line = 0, column = 0;
+    if (e.getCause() instanceof ParseException) {
+      line = ((ParseException) e.getCause()).getLine();
+      column = ((ParseException) e.getCause()).getColumn();
+    }
+    diagnostics.record(Diagnostic.Kind.ERROR, line, column, e.getMessage());
+  }
+
+  private void recordSyntacticErrors(jmm parser) {
+    for (ParseException e : parser.getErrors()) {
+      diagnostics.record(Diagnostic.Kind.ERROR, e.getLine(), e.getColumn(),
+                         "Syntactic error: unexpected " + e.getToken());
+    }
+  }
+
   /**
    * 2. Build all symbol tables.
    * * Compiler proper.
@@ -92,12 +221,20 @@ public final class ClassCompiler extends CompilationStatus {
     new CodeGenerator(data).generateCode();
   }
 
+  /**
+   * 5. Assemble the code of each class into a class file.
+   * * Assembler
+   */
+  private void assemble() {
+    new Assembler(data).assemble();
+  }
+
   /**
    * Exit if the error code is too high.
    */
   private boolean onErrorLevel(int level) {
     if (status() >= level) {
-      System.err.println("Compilation error(s) found.");
+      err.println("Compilation error(s) found.");
       return true;
     } else {
       return false;
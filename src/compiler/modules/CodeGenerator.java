@@ -1,33 +1,127 @@
 package compiler.modules;
 
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
 import compiler.codeGenerator.ClassHeader;
-import compiler.codeGenerator.CodeGeneratorConstants;
 import compiler.codeGenerator.Constructors;
 import compiler.codeGenerator.FieldDefinitionsHeader;
+import compiler.codeGenerator.Main;
 import compiler.codeGenerator.MethodGenerator;
 import compiler.codeGenerator.SuperHeader;
+import compiler.codeGenerator.classfile.ClassFile;
+import compiler.codeGenerator.classfile.Opcodes;
+import compiler.codeGenerator.ir.Instruction;
+import compiler.codeGenerator.ir.MethodCode;
+import compiler.symbols.MemberDescriptor;
+import compiler.codeGenerator.utils.ClassFileWriter;
 import compiler.codeGenerator.utils.JasminWriter;
 
 public class CodeGenerator extends CompilationStatus {
 
     private final CompilationData data;
-    private final JasminWriter writer;
 
     public CodeGenerator(CompilationData data) {
         this.data = data;
-        this.writer = new JasminWriter(data.jmmClass.getClassName());
     }
 
     public void generateCode() {
+        String className = data.jmmClass.getClassName();
+        long bytes;
+
+        if (data.options.classFiles) {
+            byte[] classFile = generateClassFile().toByteArray();
+            bytes = classFile.length;
+            if (data.inMemory()) {
+                data.classes.put(className, classFile);
+            } else {
+                ClassFileWriter writer = new ClassFileWriter(data.options.outputDirectory, className);
+                writer.writeFile(classFile);
+                data.outputs.add(writer.getFile());
+            }
+        } else if (data.inMemory()) {
+            StringBuilder assembly = new StringBuilder();
+            generate(assembly::append);
+            String text = assembly.toString();
+            data.assembly.put(className, text);
+            bytes = data.stats != null ? text.getBytes(StandardCharsets.UTF_8).length : 0;
+        } else {
+            JasminWriter writer = new JasminWriter(data.options.outputDirectory, className);
+            // The assembler is given the code as well, rather than reading the file back.
+            StringBuilder assembly = data.options.assemble ? new StringBuilder() : null;
+            try {
+                generate(assembly == null ? writer::write : code -> {
+                    writer.write(code);
+                    assembly.append(code);
+                });
+            } catch (RuntimeException e) {
+                writer.close();
+                writer.getFile().delete();
+                throw e;
+            }
+            writer.close();
+            data.outputs.add(writer.getFile());
+            if (assembly != null)
+                data.assembly.put(className, assembly.toString());
+            bytes = writer.getFile().length();
+        }
+
+        if (data.stats != null)
+            data.stats.count("outputBytes", bytes);
+    }
+
+    /**
+     * Builds the class file straight from the code of the methods.
+     */
+    private ClassFile generateClassFile() {
+        String superName = data.jmmClass.getSuperClassName();
+        ClassFile classFile = new ClassFile(Opcodes.ACC_PUBLIC, data.jmmClass.getClassName(),
+                                            superName == null ? SuperHeader.DEFAULTSUPER : superName);
+        for (MemberDescriptor member : data.jmmClass.getMembersList())
+            classFile.addField(Opcodes.ACC_PROTECTED, member.getName(), member.getType().getBytecodeString());
+        generateMethods(method -> method.writeTo(classFile));
+        if (data.name != null)
+            classFile.setSourceFile(data.name);
+        return classFile;
+    }
+
+    /**
+     * Generates the Jasmin code of the class, component by component, each followed by a new line.
+     * The code of each method is output as soon as it is generated.
+     */
+    private void generate(Consumer<String> output) {
+        output.accept(new ClassHeader(data.jmmClass.getClassName()) + "\n");
+        output.accept(new SuperHeader(data.jmmClass.getSuperClassName()) + "\n");
+        output.accept(new FieldDefinitionsHeader(data.jmmClass.getMembersList()) + "\n");
+        generateMethods(method -> output.accept("\n" + method));
+    }
+
+    /**
+     * Generates the methods of the class: the constructor, the methods declared, and an empty main
+     * if none is.
+     */
+    private void generateMethods(Consumer<MethodCode> output) {
+        Consumer<MethodCode> sink = data.stats == null ? output : method -> {
+            count(method);
+            output.accept(method);
+        };
+
+        sink.accept(new Constructors(data.jmmClass.getSuper()).generate());
+        new MethodGenerator(this.data).generate(sink);
+        if(!data.jmmClass.hasMain())
+            sink.accept(Main.empty());
+    }
 
-        ClassHeader classHeader = new ClassHeader(data.jmmClass.getClassName());
-        SuperHeader superHeader = new SuperHeader(data.jmmClass.getSuperClassName());
-        FieldDefinitionsHeader fieldDefinitions = new FieldDefinitionsHeader(data.jmmClass.getMembersList());
-        Constructors constructors = new Constructors(data.jmmClass.getSuper());
-        MethodGenerator methods = new MethodGenerator(this.data);
-        if(data.jmmClass.hasMain())
-            this.writer.writeFile(classHeader.toString(), superHeader.toString(), fieldDefinitions.toString(), constructors.toString(), methods.toString());
-        else
-            this.writer.writeFile(classHeader.toString(), superHeader.toString(), fieldDefinitions.toString(), constructors.toString(), methods.toString(),CodeGeneratorConstants.DEFAULTMAIN);
+    /**
+     * Counts the instructions and labels of the code of a method.
+     */
+    private void count(MethodCode method) {
+        long instructions = 0, labels = 0;
+        for (Instruction instruction : method.code) {
+            if (instruction.isLabel()) labels++;
+            else instructions++;
+        }
+        data.stats.count("instructions", instructions);
+        data.stats.count("labels", labels);
     }
 }
@@ -1,7 +1,9 @@
 package compiler.modules;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 import compiler.dag.DAGMulti;
 import compiler.symbols.FunctionLocals;
@@ -9,16 +11,48 @@ import compiler.symbols.JMMClassDescriptor;
 import compiler.symbols.JMMFunction;
 import jjt.SimpleNode;
 
+/**
+ * The state of one compilation. The methods are kept in the order they are declared, so that the
+ * generated code does not depend on hashing.
+ *
+ * A compilation of a source given in memory, without a source file, keeps its generated code in
+ * memory too, instead of writing it to the output directory.
+ */
 public class CompilationData {
   
   public SimpleNode classNode;
   public JMMClassDescriptor jmmClass;
-  public final HashMap<JMMFunction, SimpleNode> nodesMap = new HashMap<>();
-  public final HashMap<JMMFunction, FunctionLocals> localsMap = new HashMap<>();
-  public final HashMap<JMMFunction, DAGMulti> bodiesMap = new HashMap<>();
+  public final HashMap<JMMFunction, SimpleNode> nodesMap = new LinkedHashMap<>();
+  public final HashMap<JMMFunction, FunctionLocals> localsMap = new LinkedHashMap<>();
+  public final HashMap<JMMFunction, DAGMulti> bodiesMap = new LinkedHashMap<>();
+  public final ArrayList<File> outputs = new ArrayList<>();
+  public final LinkedHashMap<String, String> assembly = new LinkedHashMap<>();
+  public final LinkedHashMap<String, byte[]> classes = new LinkedHashMap<>();
   public final File sourcefile;
+  public final String name;
+  public final CompilationOptions options;
+  public final CompilationStats stats;
 
-  public CompilationData(File sourcefile) {
+  public CompilationData(File sourcefile, CompilationOptions options) {
+    this(sourcefile, sourcefile.getName(), options);
+  }
+
+  /**
+   * @param sourcefile The JMM source file, or null if the source is in memory.
+   * @param name       The name of the source in diagnostics.
+   * @param options    The options of the compilation.
+   */
+  public CompilationData(File sourcefile, String name, CompilationOptions options) {
     this.sourcefile = sourcefile;
+    this.name = name;
+    this.options = options;
+    this.stats = options.stats != null ? new CompilationStats(name) : null;
+  }
+
+  /**
+   * @return true if the source, and so the output, are in memory.
+   */
+  public boolean inMemory() {
+    return sourcefile == null;
   }
 }
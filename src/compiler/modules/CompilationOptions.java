@@ -0,0 +1,44 @@
+package compiler.modules;
+
+import java.io.File;
+
+import compiler.codeGenerator.utils.Config;
+
+/**
+ * The options of a single compilation, as given in the command line.
+ */
+public class CompilationOptions {
+
+  // Directory where the generated files are placed.
+  public File outputDirectory = new File(Config.classFilesPath);
+
+  // Whether class files are output instead of Jasmin code.
+  public boolean classFiles = false;
+
+  // Whether the Jasmin code is also assembled into class files, by Jasmin in the same JVM.
+  public boolean assemble = false;
+
+  // Most local variable slots a method may use, with the locals allocated to as few slots as
+  // their lifetimes allow; or -1 to give each local a slot of its own.
+  public int registers = -1;
+
+  // Whether expressions are folded and simplified as the DAG is built.
+  public boolean optimize = false;
+
+  // Whether the DAG and code of each method are built in parallel.
+  public boolean parallelMethods = false;
+
+  // Cache of generated files, or null if caching is off.
+  public BuildCache cache = null;
+
+  // Format of the statistics report of each compilation, or null if there is none.
+  public CompilationStats.Format stats = null;
+
+  /**
+   * @return A string identifying all the options that change the generated code.
+   */
+  public String fingerprint() {
+    return (classFiles ? "class" : "jasmin") + (assemble ? "+assemble" : "")
+        + (registers >= 0 ? "+r" + registers : "") + (optimize ? "+o" : "");
+  }
+}
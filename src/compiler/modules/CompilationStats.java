@@ -0,0 +1,173 @@
+package compiler.modules;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statistics of one compilation: how long each phase took and how much it allocated, and the size
+ * of what each phase produced.
+ *
+ * Times and allocations are measured for the thread running the phase. Work a phase hands over to
+ * other threads, as with parallel methods, is added to it with account().
+ */
+public final class CompilationStats {
+  public enum Format { TEXT, JSON }
+
+  private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+  private final String name;
+  private final ArrayList<Phase> phases = new ArrayList<>();
+  private final LinkedHashMap<String, Long> counts = new LinkedHashMap<>();
+  private Phase current;
+
+  public CompilationStats(String name) {
+    this.name = name;
+  }
+
+  private static final class Phase {
+    final String name;
+    long wall, cpu, allocated;
+
+    Phase(String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * Run a phase of the compilation, measuring it.
+   */
+  void measure(String phaseName, Runnable work) {
+    Phase phase = new Phase(phaseName);
+    Thread thread = Thread.currentThread();
+    long wall = System.nanoTime(), cpu = cpuTime(), allocated = allocatedBytes(thread);
+
+    synchronized (this) {
+      phases.add(phase);
+      current = phase;
+    }
+    try {
+      work.run();
+    } finally {
+      long wallDelta = System.nanoTime() - wall;
+      long cpuDelta = cpuTime() - cpu;
+      long allocatedDelta = allocatedBytes(thread) - allocated;
+      synchronized (this) {
+        phase.wall = wallDelta;
+        phase.cpu += cpuDelta;
+        phase.allocated += allocatedDelta;
+        current = null;
+      }
+    }
+  }
+
+  /**
+   * Add the CPU time and allocations of work done for the current phase in another thread.
+   */
+  synchronized void account(long cpu, long allocated) {
+    if (current == null) return;
+    current.cpu += cpu;
+    current.allocated += allocated;
+  }
+
+  /**
+   * Add to a count, such as the number of nodes of a representation.
+   */
+  public synchronized void count(String countName, long value) {
+    counts.merge(countName, value, Long::sum);
+  }
+
+  /**
+   * @return The CPU time of the current thread, in nanoseconds, or 0 if it cannot be measured.
+   */
+  static long cpuTime() {
+    return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : 0;
+  }
+
+  /**
+   * @return The bytes allocated so far by the thread, or 0 if they cannot be measured.
+   */
+  @SuppressWarnings("deprecation")
+  static long allocatedBytes(Thread thread) {
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) threads;
+      if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+        return sun.getThreadAllocatedBytes(thread.getId());
+      }
+    }
+    return 0;
+  }
+
+  public synchronized String format(Format format) {
+    return format == Format.JSON ? toJson() : toString();
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder string = new StringBuilder();
+    string.append("Statistics of ").append(name).append(":\n");
+    string.append(String.format("  %-10s %10s %10s %12s\n", "phase", "wall ms", "cpu ms",
+                                "alloc KiB"));
+
+    long wall = 0, cpu = 0, allocated = 0;
+    for (Phase phase : phases) {
+      string.append(phaseLine(phase.name, phase.wall, phase.cpu, phase.allocated));
+      wall += phase.wall;
+      cpu += phase.cpu;
+      allocated += phase.allocated;
+    }
+    string.append(phaseLine("total", wall, cpu, allocated));
+
+    for (Map.Entry<String, Long> entry : counts.entrySet()) {
+      string.append(String.format("  %-24s %10d\n", entry.getKey(), entry.getValue()));
+    }
+    return string.toString();
+  }
+
+  private static String phaseLine(String name, long wall, long cpu, long allocated) {
+    return String.format("  %-10s %10.3f %10.3f %12d\n", name, wall / 1e6, cpu / 1e6,
+                         allocated / 1024);
+  }
+
+  /**
+   * @return The statistics as a single line JSON object, with times in nanoseconds.
+   */
+  public synchronized String toJson() {
+    StringBuilder json = new StringBuilder();
+    json.append("{\"file\":").append(quote(name)).append(",\"phases\":[");
+
+    for (int i = 0; i < phases.size(); ++i) {
+      Phase phase = phases.get(i);
+      if (i > 0) json.append(',');
+      json.append("{\"name\":").append(quote(phase.name))
+          .append(",\"wallNanos\":").append(phase.wall)
+          .append(",\"cpuNanos\":").append(phase.cpu)
+          .append(",\"allocatedBytes\":").append(phase.allocated).append('}');
+    }
+
+    json.append("],\"counts\":{");
+    boolean first = true;
+    for (Map.Entry<String, Long> entry : counts.entrySet()) {
+      if (!first) json.append(',');
+      json.append(quote(entry.getKey())).append(':').append(entry.getValue());
+      first = false;
+    }
+    return json.append("}}").toString();
+  }
+
+  private static String quote(String string) {
+    StringBuilder quoted = new StringBuilder("\"");
+    for (char c : string.toCharArray()) {
+      if (c == '"' || c == '\\') {
+        quoted.append('\\').append(c);
+      } else if (c < 0x20) {
+        quoted.append(String.format("\\u%04x", (int) c));
+      } else {
+        quoted.append(c);
+      }
+    }
+    return quoted.append('"').toString();
+  }
+}
@@ -2,6 +2,8 @@ package compiler.modules;
 
 import static compiler.modules.CompilationStatus.Codes.OK;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class CompilationStatus {
   public class Codes {
     // No errors.
@@ -26,20 +28,20 @@ public class CompilationStatus {
     public static final int FATAL = 4;
   }
 
-  private int current = OK;
+  // Methods may be compiled in parallel, all of them reporting to the same trackers.
+  private final AtomicInteger current = new AtomicInteger(OK);
 
   /**
    * Possibly raise the current exit code status
    */
   public int update(int status) {
-    if (current < status) current = status;
-    return current;
+    return current.accumulateAndGet(status, Math::max);
   }
 
   /**
    * Return the current status
    */
   public int status() {
-    return current;
+    return current.get();
   }
 }
@@ -1,9 +1,23 @@
 package compiler.modules;
 
+import static jjt.jmmTreeConstants.JJTMAINDECLARATION;
+import static jjt.jmmTreeConstants.JJTVARIABLEDECLARATION;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
 import compiler.dag.DAGMulti;
+import compiler.dag.DAGNodes;
+import compiler.dag.DeadCodeEliminator;
+import compiler.dag.LoopInvariantHoister;
 import compiler.dag.NodeFactory;
+import compiler.dag.flow.ControlFlowGraph;
+import compiler.dag.flow.DefiniteAssignment;
+import compiler.dag.flow.Variables;
 import compiler.symbols.FunctionLocals;
 import compiler.symbols.JMMFunction;
+import compiler.symbols.VariableDescriptor;
 import jjt.SimpleNode;
 
 class DAGBuilder extends CompilationStatus {
@@ -20,14 +34,66 @@ class DAGBuilder extends CompilationStatus {
   }
 
   void buildMethods() {
-    for (JMMFunction function : data.localsMap.keySet()) {
+    ArrayList<JMMFunction> functions = new ArrayList<>(data.localsMap.keySet());
+
+    List<DAGMulti> bodies = MethodTasks.run(data, functions, function -> {
       FunctionLocals locals = data.localsMap.get(function);
       SimpleNode functionNode = data.nodesMap.get(function);
 
-      DAGMulti body = new NodeFactory(locals, this).buildMethod(functionNode);
+      DAGMulti body = new NodeFactory(locals, this, data.options.optimize).buildMethod(functionNode);
       assert body != null;
+      checkAssignments(body, functionNode);
+      if (data.options.optimize) {
+        DeadCodeEliminator eliminator = new DeadCodeEliminator(body);
+        body = eliminator.eliminate();
+        if (data.stats != null) data.stats.count("deadStatements", eliminator.removed());
+        LoopInvariantHoister hoister = new LoopInvariantHoister(body, locals);
+        body = hoister.hoist();
+        if (data.stats != null) data.stats.count("loopInvariants", hoister.hoisted());
+      }
+      return body;
+    });
+
+    for (int i = 0; i < functions.size(); ++i) {
+      data.bodiesMap.put(functions.get(i), bodies.get(i));
+    }
+
+    if (data.stats != null) {
+      for (DAGMulti body : bodies) {
+        data.stats.count("dagNodes", DAGNodes.count(body));
+        // The optimizer reuses an expression by handing out the node it built before.
+        data.stats.count("cseReused", DAGNodes.countShared(body));
+      }
+    }
+  }
+
+  /**
+   * Warns about the local variables of the method which may be read before they are assigned.
+   */
+  private void checkAssignments(DAGMulti body, SimpleNode functionNode) {
+    ControlFlowGraph graph = ControlFlowGraph.build(body);
+    DefiniteAssignment analysis = new DefiniteAssignment(graph, new Variables(graph));
+    analysis.solve();
+
+    LinkedHashSet<VariableDescriptor> unassigned = new LinkedHashSet<>();
+    analysis.unassignedReads().forEach(read -> unassigned.add(read.getVariable()));
+    if (unassigned.isEmpty()) return;
+
+    int index = functionNode.is(JJTMAINDECLARATION) ? 1 : 3;
+    SimpleNode methodBodyNode = functionNode.jjtGetChild(index);
+
+    for (VariableDescriptor variable : unassigned) {
+      for (int i = 0; i < methodBodyNode.jjtGetNumChildren(); ++i) {
+        SimpleNode varDeclaration = methodBodyNode.jjtGetChild(i);
+        if (!varDeclaration.is(JJTVARIABLEDECLARATION)) break;
 
-      data.bodiesMap.put(function, body);
+        SimpleNode nameNode = varDeclaration.jjtGetChild(1);
+        if (nameNode.jjtGetVal().equals(variable.getName())) {
+          DiagnosticsHandler.unassignedLocal(nameNode, variable.getName());
+          update(Codes.WARNINGS);
+          break;
+        }
+      }
     }
   }
 
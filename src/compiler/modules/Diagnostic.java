@@ -0,0 +1,28 @@
+package compiler.modules;
+
+/**
+ * A diagnostic of a compilation, as reported to the DiagnosticsHandler, for callers which need more
+ * than the printed text. Lines and columns start at 1, and are 0 if unknown.
+ */
+public final class Diagnostic {
+  public enum Kind { ERROR, WARNING, NOTE }
+
+  public final Kind kind;
+  public final String file;
+  public final int line;
+  public final int column;
+  public final String message;
+
+  Diagnostic(Kind kind, String file, int line, int column, String message) {
+    this.kind = kind;
+    this.file = file;
+    this.line = line;
+    this.column = column;
+    this.message = message;
+  }
+
+  @Override
+  public String toString() {
+    return file + ":" + line + ":" + column + ": " + kind.name().toLowerCase() + ": " + message;
+  }
+}
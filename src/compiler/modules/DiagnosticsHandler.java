@@ -1,10 +1,14 @@
 package compiler.modules;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import compiler.symbols.FunctionSignature;
 import compiler.symbols.JMMFunction;
@@ -14,19 +18,28 @@ import jjt.SimpleNode;
 /**
  * Handles I/O logging of various compilation diagnostics, let it be
  * information, warnings or errors.
+ *
+ * Each thread reports to its own installed handler, which writes to its own
+ * stream, so concurrent compilations do not interleave their diagnostics.
  */
 public class DiagnosticsHandler {
-  private final File file;
-  private final ArrayList<String> lines;
-  public static DiagnosticsHandler self;
+  private final String name;
+  private final List<String> lines;
+  private final PrintStream out;
+  private final ByteArrayOutputStream buffer;
+  private final ArrayList<Diagnostic> diagnostics = new ArrayList<>();
+  private static final ThreadLocal<DiagnosticsHandler> self = new ThreadLocal<>();
 
   public static boolean SUPPRESS_WARNINGS = false;
   public static boolean SUPPRESS_NOTES = true;
   public static int PADDING = 7;
 
   public DiagnosticsHandler(File file) throws IOException {
-    this.file = file;
-    this.lines = new ArrayList<>();
+    this(file, System.err);
+  }
+
+  public DiagnosticsHandler(File file, PrintStream out) throws IOException {
+    this(file.getName(), new ArrayList<>(), out);
 
     // Cache file
     try (BufferedReader br = new BufferedReader(new FileReader(file))) {
@@ -37,6 +50,98 @@ public class DiagnosticsHandler {
     }
   }
 
+  /**
+   * A handler for a source which is not read from a file.
+   */
+  public DiagnosticsHandler(String name, String source, PrintStream out) {
+    this(name, Arrays.asList(source.split("\r\n|\r|\n", -1)), out);
+  }
+
+  private DiagnosticsHandler(String name, List<String> lines, PrintStream out) {
+    this.name = name;
+    this.lines = lines;
+    this.out = out;
+    this.buffer = null;
+  }
+
+  private DiagnosticsHandler(DiagnosticsHandler parent, ByteArrayOutputStream buffer) {
+    this.name = parent.name;
+    this.lines = parent.lines;
+    this.out = new PrintStream(buffer, true);
+    this.buffer = buffer;
+  }
+
+  /**
+   * @return A handler for the same file, whose diagnostics are held back until joined into this
+   *         one. Parts of a compilation that run in parallel report to forked handlers, so that
+   *         their diagnostics come out in a stable order.
+   */
+  DiagnosticsHandler fork() {
+    return new DiagnosticsHandler(this, new ByteArrayOutputStream());
+  }
+
+  /**
+   * Write out the diagnostics held back by a forked handler.
+   */
+  void join(DiagnosticsHandler forked) {
+    assert forked.buffer != null && forked.lines == lines;
+    out.print(forked.buffer.toString());
+    diagnostics.addAll(forked.diagnostics);
+  }
+
+  /**
+   * @return The diagnostics reported to this handler so far, in order.
+   */
+  public List<Diagnostic> diagnostics() {
+    return diagnostics;
+  }
+
+  /**
+   * Keep a diagnostic reported elsewhere, such as a syntactic error, which was printed already.
+   */
+  void record(Diagnostic.Kind kind, int line, int column, String message) {
+    diagnostics.add(new Diagnostic(kind, name, line, column, message));
+  }
+
+  /**
+   * Make this the handler of the diagnostics reported by the current thread.
+   */
+  void install() {
+    self.set(this);
+  }
+
+  /**
+   * Remove the current thread's handler.
+   */
+  static void uninstall() {
+    self.remove();
+  }
+
+  /**
+   * @return The handler of the current thread, or null if there is none.
+   */
+  static DiagnosticsHandler current() {
+    return self.get();
+  }
+
+  /**
+   * Make the given handler, possibly null, the handler of the current thread.
+   */
+  static void restore(DiagnosticsHandler handler) {
+    if (handler == null) {
+      uninstall();
+    } else {
+      handler.install();
+    }
+  }
+
+  /**
+   * @return The stream this handler writes to.
+   */
+  public PrintStream stream() {
+    return out;
+  }
+
   public static void invalidClassname(SimpleNode node, String name) {
     error(node, "Invalid class name " + name);
   }
@@ -83,6 +188,11 @@ public class DiagnosticsHandler {
     error(node, "Name " + varName + " has already been locally defined");
   }
 
+  // Local variable node, declaration
+  public static void unassignedLocal(SimpleNode node, String varName) {
+    warning(node, "Local variable " + varName + " may be read before it is assigned");
+  }
+
   // This node
   public static void staticUseOfThis(SimpleNode node) {
     error(node, "Cannot use 'this' in a static context");
@@ -170,24 +280,26 @@ public class DiagnosticsHandler {
   }
 
   private static void error(SimpleNode node, String message) {
-    print(node, message, "error", ANSI_RED);
+    print(node, message, Diagnostic.Kind.ERROR, ANSI_RED);
   }
 
   private static void warning(SimpleNode node, String message) {
     if (SUPPRESS_WARNINGS) return;
-    print(node, message, "warning", ANSI_PURPLE);
+    print(node, message, Diagnostic.Kind.WARNING, ANSI_PURPLE);
   }
 
   private static void note(SimpleNode node, String message) {
     if (SUPPRESS_NOTES) return;
-    print(node, message, "note", ANSI_CYAN);
+    print(node, message, Diagnostic.Kind.NOTE, ANSI_CYAN);
   }
 
-  private static void print(SimpleNode node, String message, String kind, String ansicolor) {
+  private static void print(SimpleNode node, String message, Diagnostic.Kind kind,
+                            String ansicolor) {
     int[] begin = node.treeBegin(), end = node.treeEnd();
     int beginLine = begin[0], endLine = end[0], beginColumn = begin[1], endColumn = end[1];
 
-    header(endLine, endColumn, message, kind, ansicolor);
+    self.get().record(kind, endLine, endColumn, message);
+    header(endLine, endColumn, message, kind.name().toLowerCase(), ansicolor);
 
     if (beginLine == endLine) {
       tilded(endLine, beginColumn, endColumn, ansicolor);
@@ -205,9 +317,9 @@ public class DiagnosticsHandler {
 
   //  File.java:line:col: $kind$: message\n
   private static void header(int line, int col, String message, String kind, String ansicolor) {
-    String header = self.file.getName() + ":" + line + ":" + col;
+    String header = self.get().name + ":" + line + ":" + col;
     header += ": " + ansicolor + kind + ANSI_RESET + ": " + message + ".";
-    System.err.println(header);
+    self.get().out.println(header);
   }
 
   //       |     ~~~~~~~~~~^
@@ -216,8 +328,8 @@ public class DiagnosticsHandler {
     String pointer = spaces + ansicolor + tildes + "^" + ANSI_RESET;
     String leftTop = front(line), leftBot = " ".repeat(leftTop.length() - 1) + "|";
 
-    System.err.println(leftTop + self.lines.get(line - 1));
-    System.err.println(leftBot + pointer);
+    self.get().out.println(leftTop + self.get().lines.get(line - 1));
+    self.get().out.println(leftBot + pointer);
   }
 
   //       |               ^
@@ -225,8 +337,8 @@ public class DiagnosticsHandler {
     String spaces = " ".repeat(col - 1);
     String leftTop = front(line), leftBot = " ".repeat(leftTop.length() - 1) + "|";
 
-    System.err.println(leftTop + self.lines.get(line - 1));
-    System.err.println(leftBot + spaces + ansicolor + "^" + ANSI_RESET + "\n");
+    self.get().out.println(leftTop + self.get().lines.get(line - 1));
+    self.get().out.println(leftBot + spaces + ansicolor + "^" + ANSI_RESET + "\n");
   }
 
   private static final String ANSI_RESET = "\u001B[0m";
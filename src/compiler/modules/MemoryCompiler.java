@@ -0,0 +1,92 @@
+package compiler.modules;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The entry point of the compiler as a library: compiles a source given as text, without touching
+ * the filesystem, and gives back the generated code, as Jasmin code or class files, and the
+ * diagnostics.
+ *
+ * Each call is a compilation of its own, with all of its state local to it and to the calling
+ * thread, so the compiler may be called repeatedly and from many threads at once.
+ */
+public final class MemoryCompiler {
+  private MemoryCompiler() {}
+
+  /**
+   * The outcome of a compilation.
+   */
+  public static final class Result {
+    // The highest CompilationStatus code reached.
+    public final int status;
+
+    // The generated Jasmin code of each class, by class name, or with the class files option its
+    // class file; empty if compilation failed.
+    public final Map<String, String> assembly;
+    public final Map<String, byte[]> classes;
+
+    // The diagnostics, in order, and the text they were printed as.
+    public final List<Diagnostic> diagnostics;
+    public final String messages;
+
+    Result(int status, Map<String, String> assembly, Map<String, byte[]> classes,
+           List<Diagnostic> diagnostics, String messages) {
+      this.status = status;
+      this.assembly = Collections.unmodifiableMap(assembly);
+      this.classes = Collections.unmodifiableMap(classes);
+      this.diagnostics = Collections.unmodifiableList(diagnostics);
+      this.messages = messages;
+    }
+
+    /**
+     * @return true if code was generated, though possibly with warnings.
+     */
+    public boolean succeeded() {
+      return status < CompilationStatus.Codes.MINOR_ERRORS
+          && !(assembly.isEmpty() && classes.isEmpty());
+    }
+  }
+
+  public static Result compile(String name, String source) {
+    return compile(name, source, new CompilationOptions());
+  }
+
+  public static Result compile(String name, Reader source) throws IOException {
+    return compile(name, source, new CompilationOptions());
+  }
+
+  public static Result compile(String name, Reader source, CompilationOptions options)
+      throws IOException {
+    StringBuilder text = new StringBuilder();
+    char[] buffer = new char[8192];
+    int read;
+    while ((read = source.read(buffer)) != -1) {
+      text.append(buffer, 0, read);
+    }
+    return compile(name, text.toString(), options);
+  }
+
+  /**
+   * @param name    The name of the source in diagnostics, usually that of its file.
+   * @param source  The JMM source text.
+   * @param options The options of the compilation; its output directory and cache are not used.
+   */
+  public static Result compile(String name, String source, CompilationOptions options) {
+    ByteArrayOutputStream messages = new ByteArrayOutputStream();
+    PrintStream err = new PrintStream(messages, true, StandardCharsets.UTF_8);
+
+    ClassCompiler compiler = new ClassCompiler(name, source, options, err).compile();
+    err.flush();
+
+    String text = messages.toString(StandardCharsets.UTF_8);
+    return new Result(compiler.status(), compiler.getAssembly(), compiler.getClasses(),
+                      compiler.getDiagnostics(), text);
+  }
+}
@@ -0,0 +1,108 @@
+package compiler.modules;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import compiler.symbols.JMMFunction;
+import compiler.symbols.TypeDescriptor;
+
+/**
+ * Runs a piece of work for each method of a class, which once the symbol tables are built is
+ * independent of the work on any other method.
+ *
+ * With the parallel methods option the work for each method is a task of a fork-join pool: the
+ * pool the current thread works for, if any, or the common pool. Each task takes over the
+ * compilation's scope of types, and reports to a forked diagnostics handler that is joined back
+ * in the order of the methods. Either way, the results are given in the order of the methods.
+ * The CPU time and allocations of tasks run by other threads are added to the compilation's
+ * statistics, if any.
+ */
+public final class MethodTasks {
+  private MethodTasks() {}
+
+  public static <R> List<R> run(CompilationData data, Collection<JMMFunction> methods,
+                                Function<JMMFunction, R> work) {
+    ArrayList<R> results = new ArrayList<>(methods.size());
+    run(data, methods, work, results::add);
+    return results;
+  }
+
+  /**
+   * Gives each result to the consumer, in the order of the methods. Without the parallel methods
+   * option each result is given as soon as it is done, so that only one is held at a time.
+   */
+  public static <R> void run(CompilationData data, Collection<JMMFunction> methods,
+                             Function<JMMFunction, R> work, Consumer<R> results) {
+    if (!data.options.parallelMethods || methods.size() < 2) {
+      for (JMMFunction method : methods) results.accept(work.apply(method));
+      return;
+    }
+
+    TypeDescriptor.Scope scope = TypeDescriptor.currentScope();
+    DiagnosticsHandler diagnostics = DiagnosticsHandler.current();
+
+    ArrayList<MethodTask<R>> tasks = new ArrayList<>(methods.size());
+    for (JMMFunction method : methods) {
+      DiagnosticsHandler forked = diagnostics != null ? diagnostics.fork() : null;
+      tasks.add(new MethodTask<>(method, work, scope, forked, data.stats));
+    }
+
+    ForkJoinTask.invokeAll(tasks);
+
+    for (MethodTask<R> task : tasks) {
+      if (diagnostics != null) diagnostics.join(task.diagnostics);
+      results.accept(task.join());
+    }
+  }
+
+  private static final class MethodTask<R> extends RecursiveTask<R> {
+    private static final long serialVersionUID = 1L;
+
+    private final JMMFunction method;
+    private final Function<JMMFunction, R> work;
+    private final TypeDescriptor.Scope scope;
+    private final DiagnosticsHandler diagnostics;
+    private final CompilationStats stats;
+    private final Thread owner = Thread.currentThread();
+
+    MethodTask(JMMFunction method, Function<JMMFunction, R> work, TypeDescriptor.Scope scope,
+               DiagnosticsHandler diagnostics, CompilationStats stats) {
+      this.method = method;
+      this.work = work;
+      this.scope = scope;
+      this.diagnostics = diagnostics;
+      this.stats = stats;
+    }
+
+    @Override
+    protected R compute() {
+      // The task may run on the thread that forked it, so put its state back afterwards.
+      TypeDescriptor.Scope savedScope = TypeDescriptor.currentScope();
+      DiagnosticsHandler savedDiagnostics = DiagnosticsHandler.current();
+
+      // Work stolen by another thread is not seen by the measures of the owner's phase.
+      Thread thread = Thread.currentThread();
+      boolean foreign = stats != null && thread != owner;
+      long cpu = foreign ? CompilationStats.cpuTime() : 0;
+      long allocated = foreign ? CompilationStats.allocatedBytes(thread) : 0;
+
+      TypeDescriptor.enterScope(scope);
+      DiagnosticsHandler.restore(diagnostics);
+      try {
+        return work.apply(method);
+      } finally {
+        TypeDescriptor.enterScope(savedScope);
+        DiagnosticsHandler.restore(savedDiagnostics);
+        if (foreign) {
+          stats.account(CompilationStats.cpuTime() - cpu,
+                        CompilationStats.allocatedBytes(thread) - allocated);
+        }
+      }
+    }
+  }
+}
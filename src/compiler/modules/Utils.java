@@ -67,4 +67,15 @@ public class Utils {
 
     return returnNode;
   }
+
+  /**
+   * @return The number of nodes of the syntax tree under this node, itself included.
+   */
+  public static int countNodes(SimpleNode node) {
+    int count = 1;
+    for (int i = 0; i < node.jjtGetNumChildren(); ++i) {
+      count += countNodes(node.jjtGetChild(i));
+    }
+    return count;
+  }
 }
@@ -1,6 +1,7 @@
 package compiler.symbols;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Objects;
 
 /**
@@ -22,7 +23,7 @@ public class FunctionLocals extends Descriptor {
   public FunctionLocals(JMMFunction function) {
     assert function != null;
     this.function = function;
-    this.variables = new HashMap<>();
+    this.variables = new LinkedHashMap<>();
 
     // Add the 'this' variable to the variables table.
     if (!function.isStatic())
@@ -2,7 +2,8 @@ package compiler.symbols;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 
 /**
  * Represents a class being parsed by this compiler: it must obey the rules of
@@ -32,8 +33,8 @@ public class JMMClassDescriptor extends ClassDescriptor {
   public JMMClassDescriptor(String name) {
     super(name);
     this.superClass = null;
-    this.members = new HashMap<>();
-    this.methods = new HashMap<>();
+    this.members = new LinkedHashMap<>();
+    this.methods = new LinkedHashMap<>();
   }
 
   /**
@@ -45,8 +46,8 @@ public class JMMClassDescriptor extends ClassDescriptor {
   public JMMClassDescriptor(String name, ClassDescriptor superClass) {
     super(name);
     this.superClass = superClass;
-    this.members = new HashMap<>();
-    this.methods = new HashMap<>();
+    this.members = new LinkedHashMap<>();
+    this.methods = new LinkedHashMap<>();
   }
 
   @Override
@@ -85,7 +86,7 @@ public class JMMClassDescriptor extends ClassDescriptor {
     assert method.getSignature().isComplete();
 
     HashMap<FunctionSignature, JMMMethodDescriptor> map;
-    map = methods.computeIfAbsent(method.getName(), n -> new HashMap<>());
+    map = methods.computeIfAbsent(method.getName(), n -> new LinkedHashMap<>());
 
     assert !map.containsKey(method.getSignature());
     map.put(method.getSignature(), method);
@@ -160,7 +161,7 @@ public class JMMClassDescriptor extends ClassDescriptor {
    * Convenience methods to list all methods.
    */
   public JMMMethodDescriptor[] getMethodsList() {
-    HashSet<JMMMethodDescriptor> methodsSet = new HashSet<>();
+    LinkedHashSet<JMMMethodDescriptor> methodsSet = new LinkedHashSet<>();
     for (HashMap<FunctionSignature, JMMMethodDescriptor> map : methods.values()) {
       methodsSet.addAll(map.values());
     }
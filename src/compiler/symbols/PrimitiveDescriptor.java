@@ -43,7 +43,7 @@ public class PrimitiveDescriptor extends TypeDescriptor {
    * All instances of this class should be public static fields above.
    */
   private PrimitiveDescriptor(Type primitive) {
-    super(primitive.toString());
+    super(primitive.toString(), true);
     this.primitive = primitive;
   }
 
@@ -16,29 +16,81 @@ import java.util.Objects;
  * This class holds a list of all 'discovered' typenames and their corresponding
  * type descriptors. The PrimitiveDescriptor class holds three static instances
  * for the int, int array and boolean primitive types supported by this
- * compiler.
+ * compiler. These builtin types are shared by everyone; every other type lives
+ * in the Scope of the compilation which discovered it, and each thread sees only
+ * its current scope, so that several classes can be compiled concurrently.
  *
  * An existing type can be retrieved with 'get(name)'. An missing type can be
  * created upon retrieval with 'getOrCreate(name)' -- this function will create
  * a new instance of JavaClassDescriptor for the name if it was not found,
  * returning it. A name can be inspected with 'exists(name)' -- returning true
  * if it has an entry in the map.
+ *
+ * A compilation opens a fresh scope with 'openScope()' and discards it with
+ * 'closeScope()' when done.
  */
 public abstract class TypeDescriptor extends Descriptor {
   protected final String name;
 
-  public static final HashMap<String, TypeDescriptor> typesMap = new HashMap<>();
+  /**
+   * The non-builtin types discovered by one compilation. A scope may be shared by the threads
+   * working on the same compilation, so it is accessed under its own lock.
+   */
+  public static final class Scope {
+    private final HashMap<String, TypeDescriptor> typesMap = new HashMap<>();
+  }
+
+  private static final HashMap<String, TypeDescriptor> builtinsMap = new HashMap<>();
+  private static final ThreadLocal<Scope> currentScope = ThreadLocal.withInitial(Scope::new);
 
   // The descriptor of "void"
   public static final VoidDescriptor voidDescriptor = new VoidDescriptor();
 
+  /**
+   * Start a new, empty scope of types on the current thread, replacing the previous one.
+   *
+   * @return The new scope.
+   */
+  public static Scope openScope() {
+    Scope scope = new Scope();
+    currentScope.set(scope);
+    return scope;
+  }
+
+  /**
+   * Drop the current thread's scope of types.
+   */
+  public static void closeScope() {
+    currentScope.remove();
+  }
+
+  /**
+   * @return The current thread's scope of types.
+   */
+  public static Scope currentScope() {
+    return currentScope.get();
+  }
+
+  /**
+   * Make the given scope, possibly opened by another thread, the current thread's scope.
+   */
+  public static void enterScope(Scope scope) {
+    currentScope.set(scope);
+  }
+
   /**
    * @param name A typename being resolved.
    * @return The TypeDescriptor instance for the given typename, or null if none
    *         exists.
    */
   public static TypeDescriptor get(String name) {
-    return typesMap.get(name);
+    TypeDescriptor builtin = builtinsMap.get(name);
+    if (builtin != null) return builtin;
+
+    Scope scope = currentScope.get();
+    synchronized (scope) {
+      return scope.typesMap.get(name);
+    }
   }
 
   /**
@@ -49,11 +101,14 @@ public abstract class TypeDescriptor extends Descriptor {
    * @return The TypeDescriptor instance for this typename, possibly just created.
    */
   public static TypeDescriptor getOrCreate(String name) {
-    if (typesMap.containsKey(name)) return typesMap.get(name);
-
-    TypeDescriptor classDescriptor = new UnknownClassDescriptor(name);
-    assert classDescriptor.isClass();
-    return classDescriptor;
+    Scope scope = currentScope.get();
+    synchronized (scope) {
+      if (exists(name)) return get(name);
+
+      TypeDescriptor classDescriptor = new UnknownClassDescriptor(name);
+      assert classDescriptor.isClass();
+      return classDescriptor;
+    }
   }
 
   /**
@@ -61,7 +116,12 @@ public abstract class TypeDescriptor extends Descriptor {
    * @return true if the type exists, false otherwise.
    */
   public static boolean exists(String name) {
-    return typesMap.containsKey(name);
+    if (builtinsMap.containsKey(name)) return true;
+
+    Scope scope = currentScope.get();
+    synchronized (scope) {
+      return scope.typesMap.containsKey(name);
+    }
   }
 
   /**
@@ -84,16 +144,37 @@ public abstract class TypeDescriptor extends Descriptor {
   }
 
   /**
-   * Construct a new instance of a TypeDescriptor with the given name.
+   * Construct a new instance of a TypeDescriptor with the given name, registered in the current
+   * scope.
    *
    * @param name The typename
    */
   protected TypeDescriptor(String name) {
+    this(name, false);
+  }
+
+  /**
+   * Construct a new instance of a TypeDescriptor with the given name.
+   *
+   * @param name    The typename
+   * @param builtin Whether the type is shared by all scopes
+   */
+  TypeDescriptor(String name, boolean builtin) {
     assert name != null;
     this.name = name;
-    if (typesMap.containsKey(name))
-      throw new IllegalStateException("Type '" + name + "' already exists");
-    typesMap.put(name, this);
+    if (builtin) {
+      if (builtinsMap.containsKey(name))
+        throw new IllegalStateException("Type '" + name + "' already exists");
+      builtinsMap.put(name, this);
+      return;
+    }
+
+    Scope scope = currentScope.get();
+    synchronized (scope) {
+      if (exists(name))
+        throw new IllegalStateException("Type '" + name + "' already exists");
+      scope.typesMap.put(name, this);
+    }
   }
 
   /**
@@ -10,6 +10,7 @@ import java.util.Objects;
 public abstract class VariableDescriptor extends Descriptor {
   protected final TypeDescriptor type;
   protected final String name;
+  private int slot = -1;
 
   /**
    * Creates a new variable descriptor.
@@ -37,6 +38,21 @@ public abstract class VariableDescriptor extends Descriptor {
     return name;
   }
 
+  /**
+   * @return The slot of the variable in the frame of its function, or -1 if it has none: it is a
+   *         data member, or a local the code does not use.
+   */
+  public int getSlot() {
+    return slot;
+  }
+
+  /**
+   * @param slot The slot the code generator laid the variable out in.
+   */
+  public void setSlot(int slot) {
+    this.slot = slot;
+  }
+
   @Override
   public String toString() {
     return type + " " + name;
@@ -2,7 +2,7 @@ package compiler.symbols;
 
 public class VoidDescriptor extends TypeDescriptor {
   VoidDescriptor() {
-    super("void");
+    super("void", true);
   }
 
   @Override